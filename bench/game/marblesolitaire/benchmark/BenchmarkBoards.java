@@ -0,0 +1,88 @@
+package game.marblesolitaire.benchmark;
+
+import java.util.Random;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.single.MoveEncoding;
+import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
+import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.view.MarbleSolitaireTextView;
+import game.marblesolitaire.view.MarbleSolitaireView;
+import game.marblesolitaire.view.TriangleSolitaireTextView;
+
+/**
+ * This class builds the models, views and scripted games the benchmarks of
+ * this package run on, so that every benchmark measures the same boards.
+ */
+final class BenchmarkBoards {
+
+  private BenchmarkBoards() {
+  }
+
+  /**
+   * Return a new model of the given type with its default empty slot.
+   *
+   * @param type english, european or triangular.
+   * @param arm the arm thickness, or the dimension of a triangular board.
+   * @return the new model.
+   * @throws IllegalArgumentException if the type or the arm is invalid.
+   */
+  static MarbleSolitaireModel model(String type, int arm) {
+    switch (type) {
+      case "english":
+        return new EnglishSolitaireModel(arm);
+      case "european":
+        return new EuropeanSolitaireModel(arm);
+      case "triangular":
+        return new TriangleSolitaireModel(arm);
+      default:
+        throw new IllegalArgumentException("Invalid model type.");
+    }
+  }
+
+  /**
+   * Return a new text view of the given model writing to the given output.
+   *
+   * @param type english, european or triangular.
+   * @param model the model to view.
+   * @param out the output of the view.
+   * @return the new view.
+   */
+  static MarbleSolitaireView view(String type, MarbleSolitaireModel model, Appendable out) {
+    if (type.equals("triangular")) {
+      return new TriangleSolitaireTextView(model, out);
+    }
+    return new MarbleSolitaireTextView(model, out);
+  }
+
+  /**
+   * Play random legal moves on the given model until the game is over and
+   * return them as controller input, one move of four 1-based coordinates
+   * per line. The same seed always gives the same game.
+   *
+   * @param model the model to play on, which is left at the end of the game.
+   * @param seed the seed of the random moves.
+   * @return the moves as controller input.
+   */
+  static String playRandomGame(MarbleSolitaireModel model, long seed) {
+    Random random = new Random(seed);
+    int[] moves = new int[model.getLegalMoves(new int[0]) + 64];
+    StringBuilder script = new StringBuilder();
+    while (!model.isGameOver()) {
+      int count = model.getLegalMoves(moves);
+      if (count > moves.length) {
+        moves = new int[count];
+        model.getLegalMoves(moves);
+      }
+      int move = moves[random.nextInt(count)];
+      model.move(MoveEncoding.fromRow(move), MoveEncoding.fromCol(move),
+              MoveEncoding.toRow(move), MoveEncoding.toCol(move));
+      script.append(MoveEncoding.fromRow(move) + 1).append(' ')
+              .append(MoveEncoding.fromCol(move) + 1).append(' ')
+              .append(MoveEncoding.toRow(move) + 1).append(' ')
+              .append(MoveEncoding.toCol(move) + 1).append('\n');
+    }
+    return script.toString();
+  }
+}
@@ -0,0 +1,87 @@
+package game.marblesolitaire.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.marblesolitaire.controller.MarbleSolitaireController;
+import game.marblesolitaire.controller.MarbleSolitaireControllerImpl;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+
+/**
+ * Benchmark of a whole game played through MarbleSolitaireControllerImpl,
+ * for every board type and several arm sizes. The input is a random game
+ * played to the end, scripted once per trial, and each invocation replays
+ * it on a new model, either through playGame, drawing the board after every
+ * move as a player sees it, or as one batch through playScript.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+
+  @Param({"english", "european", "triangular"})
+  public String type;
+
+  @Param({"3", "5", "7"})
+  public int arm;
+
+  private String script;
+  private int[] moves;
+
+  /**
+   * Script the moves of a random game.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    script = BenchmarkBoards.playRandomGame(BenchmarkBoards.model(type, arm), 42);
+    String[] numbers = script.trim().split("\\s+");
+    moves = new int[numbers.length];
+    for (int i = 0; i < numbers.length; i++) {
+      moves[i] = Integer.parseInt(numbers[i]);
+    }
+  }
+
+  /**
+   * Play the scripted game from the start.
+   *
+   * @return the output of the game.
+   */
+  @Benchmark
+  public StringBuilder playGame() {
+    MarbleSolitaireModel model = BenchmarkBoards.model(type, arm);
+    StringBuilder out = new StringBuilder();
+    MarbleSolitaireController controller = new MarbleSolitaireControllerImpl(model,
+            BenchmarkBoards.view(type, model, out), new StringReader(script));
+    controller.playGame();
+    return out;
+  }
+
+  /**
+   * Replay the scripted game from the start as one batch, without rendering.
+   *
+   * @return the number of moves made.
+   */
+  @Benchmark
+  public int playScript() {
+    MarbleSolitaireModel model = BenchmarkBoards.model(type, arm);
+    MarbleSolitaireControllerImpl controller = new MarbleSolitaireControllerImpl(model,
+            BenchmarkBoards.view(type, model, new StringBuilder()), new StringReader(""));
+    return controller.playScript(moves);
+  }
+}
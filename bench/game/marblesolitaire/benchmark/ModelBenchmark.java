@@ -0,0 +1,120 @@
+package game.marblesolitaire.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.single.MoveEncoding;
+
+/**
+ * Benchmarks of the model operations the controller calls on every turn,
+ * for every board type and several arm sizes. The board is taken halfway
+ * through a random game so that it holds marbles and empty slots alike.
+ * Moves are undone right after they are made, so every invocation moves on
+ * the same board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+  @Param({"english", "european", "triangular"})
+  public String type;
+
+  @Param({"3", "5", "7"})
+  public int arm;
+
+  private MarbleSolitaireModel model;
+  private int fromRow;
+  private int fromCol;
+  private int toRow;
+  private int toCol;
+
+  /**
+   * Play half of a random game and pick a legal move of the board reached.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    MarbleSolitaireModel full = BenchmarkBoards.model(type, arm);
+    String script = BenchmarkBoards.playRandomGame(full, 42);
+    String[] lines = script.split("\n");
+    model = BenchmarkBoards.model(type, arm);
+    for (int i = 0; i < lines.length / 2; i++) {
+      String[] move = lines[i].split(" ");
+      model.move(Integer.parseInt(move[0]) - 1, Integer.parseInt(move[1]) - 1,
+              Integer.parseInt(move[2]) - 1, Integer.parseInt(move[3]) - 1);
+    }
+    int[] moves = new int[model.getLegalMoves(new int[0])];
+    model.getLegalMoves(moves);
+    fromRow = MoveEncoding.fromRow(moves[0]);
+    fromCol = MoveEncoding.fromCol(moves[0]);
+    toRow = MoveEncoding.toRow(moves[0]);
+    toCol = MoveEncoding.toCol(moves[0]);
+  }
+
+  /**
+   * Make a legal move and take it back.
+   *
+   * @return the score after the move, so the move is not optimized away.
+   */
+  @Benchmark
+  public int move() {
+    model.move(fromRow, fromCol, toRow, toCol);
+    int score = model.getScore();
+    model.undo();
+    return score;
+  }
+
+  /**
+   * Check if the game is over.
+   *
+   * @return true if the game is over.
+   */
+  @Benchmark
+  public boolean isGameOver() {
+    return model.isGameOver();
+  }
+
+  /**
+   * Read the score.
+   *
+   * @return the score.
+   */
+  @Benchmark
+  public int getScore() {
+    return model.getScore();
+  }
+
+  /**
+   * Read every slot of the board, as a view does to draw it.
+   *
+   * @param blackhole the sink of the slots read.
+   */
+  @Benchmark
+  public void getSlotAt(Blackhole blackhole) {
+    int size = model.getBoardSize();
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        MarbleSolitaireModelState.SlotState slot = model.getSlotAt(r, c);
+        blackhole.consume(slot);
+      }
+    }
+  }
+}
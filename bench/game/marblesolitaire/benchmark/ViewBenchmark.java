@@ -0,0 +1,61 @@
+package game.marblesolitaire.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.view.MarbleSolitaireView;
+
+/**
+ * Benchmarks of the text views drawing a board, for every board type and
+ * several arm sizes. English and European boards are drawn by
+ * MarbleSolitaireTextView and Triangular boards by TriangleSolitaireTextView.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewBenchmark {
+
+  @Param({"english", "european", "triangular"})
+  public String type;
+
+  @Param({"3", "5", "7"})
+  public int arm;
+
+  private MarbleSolitaireView view;
+
+  /**
+   * Build a view of the board left at the end of a random game.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    MarbleSolitaireModel model = BenchmarkBoards.model(type, arm);
+    BenchmarkBoards.playRandomGame(model, 42);
+    view = BenchmarkBoards.view(type, model, new StringBuilder());
+  }
+
+  /**
+   * Draw the board into a string.
+   *
+   * @return the drawn board.
+   */
+  @Benchmark
+  public String toStringBoard() {
+    return view.toString();
+  }
+}
@@ -1,12 +1,21 @@
 package game.marblesolitaire;
 
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Arrays;
+
 import game.marblesolitaire.controller.MarbleSolitaireController;
 import game.marblesolitaire.controller.MarbleSolitaireControllerImpl;
 import game.marblesolitaire.model.single.EnglishSolitaireModel;
 import game.marblesolitaire.model.single.MarbleSolitaireModel;
 import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
 import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.server.GameFactory;
+import game.marblesolitaire.server.NioSolitaireServer;
+import game.marblesolitaire.server.SolitaireServer;
 import game.marblesolitaire.view.MarbleSolitaireTextView;
 import game.marblesolitaire.view.MarbleSolitaireView;
 import game.marblesolitaire.view.TriangleSolitaireTextView;
@@ -15,45 +24,130 @@ import game.marblesolitaire.view.TriangleSolitaireTextView;
  * Main class for Marble Solitaire to run a game.
  */
 public final class MarbleSolitaire {
+  // number of characters of output collected before they are written out
+  private static final int OUTPUT_BUFFER = 8192;
+  private static final String USAGE = "Usage: server|nio-server <port> <game type> [options]";
 
   /**
    * Creates a model, view, controller for the marble solitaire game and runs the game.
+   * With server and a port as the first arguments, followed by the usual
+   * arguments of a game, it instead serves a new such game to every
+   * connection on that port until the process is stopped, each on a thread
+   * of its own, or with nio-server all on one thread.
    * @param args by convention.
    */
   public static void main(String[] args) {
-    String type = args[0];
-    MarbleSolitaireModel model = null;
-    MarbleSolitaireView view = null;
-    IParser p = null;
+    if (args.length > 0 && (args[0].equals("server") || args[0].equals("nio-server"))) {
+      serve(args);
+      return;
+    }
+    try {
+      MarbleSolitaireController c = newController(args,
+              new InputStreamReader(System.in), System.out, true);
+      c.playGame();
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+    }
+  }
+
+  // helper method that creates the model, view and controller of the game
+  // described by the arguments, playing over the given input and output.
+  // The view collects its output in a buffer if asked to, otherwise it
+  // appends straight to the output.
+  private static MarbleSolitaireController newController(String[] args, Readable in,
+                                                         Appendable out, boolean buffered) {
+    return newController(args[0], parse(args), in, out, buffered);
+  }
+
+  // helper method that reads the options of the game described by the
+  // arguments, throwing an IllegalArgumentException if its type is unknown.
+  private static IParser parse(String[] args) {
+    switch (args[0]) {
+      case "english":
+      case "european":
+        return new Parser(args, 3, 3, 3);
+      case "triangular":
+        return new Parser(args, 5, 0, 0);
+      default:
+        throw new IllegalArgumentException("Invalid game type " + args[0] + ".");
+    }
+  }
+
+  // helper method that creates the model, view and controller of a game of
+  // the given type with the given parsed options. An IllegalArgumentException
+  // is thrown if the options do not make a valid model.
+  private static MarbleSolitaireController newController(String type, IParser p,
+                                                         Readable in, Appendable out,
+                                                         boolean buffered) {
+    MarbleSolitaireModel model = newModel(type, p);
+    MarbleSolitaireView view;
+    if (type.equals("triangular")) {
+      view = buffered ? new TriangleSolitaireTextView(model, out, OUTPUT_BUFFER)
+              : new TriangleSolitaireTextView(model, out);
+    } else {
+      view = buffered ? new MarbleSolitaireTextView(model, out, OUTPUT_BUFFER)
+              : new MarbleSolitaireTextView(model, out);
+    }
+    return new MarbleSolitaireControllerImpl(model, view, in);
+  }
+
+  // helper method that creates the model of a game of the given type with
+  // the given parsed options.
+  private static MarbleSolitaireModel newModel(String type, IParser p) {
     try {
       switch (type) {
         case "english":
-          p = new Parser(args, 3, 3, 3);
-          model = new EnglishSolitaireModel(p.getArm(), p.getSRow(), p.getSCol());
-          view = new MarbleSolitaireTextView(model);
-          break;
+          return new EnglishSolitaireModel(p.getArm(), p.getSRow(), p.getSCol());
         case "european":
-          p = new Parser(args, 3, 3, 3);
-          model = new EuropeanSolitaireModel(p.getArm(), p.getSRow(), p.getSCol());
-          view = new MarbleSolitaireTextView(model);
-          break;
-        case "triangular":
-          p = new Parser(args, 5, 0, 0);
-          model = new TriangleSolitaireModel(p.getArm(), p.getSRow(), p.getSCol());
-          view = new TriangleSolitaireTextView(model);
-          break;
+          return new EuropeanSolitaireModel(p.getArm(), p.getSRow(), p.getSCol());
         default:
-          break;
+          return new TriangleSolitaireModel(p.getArm(), p.getSRow(), p.getSCol());
       }
     } catch (IllegalArgumentException e) {
-      System.out.println("Invalid model" + e.getMessage());
+      throw new IllegalArgumentException("Invalid model: " + e.getMessage());
+    }
+  }
+
+  // helper method that serves the game described by the arguments after
+  // the port to every connection on the port.
+  private static void serve(String[] args) {
+    if (args.length < 3) {
+      System.out.println(USAGE);
+      return;
     }
+    String[] gameArgs = Arrays.copyOfRange(args, 2, args.length);
+    String type = gameArgs[0];
+    IParser options;
     try {
-      MarbleSolitaireController c = new MarbleSolitaireControllerImpl(model, view,
-              new InputStreamReader(System.in));
-      c.playGame();
+      // the game is checked once before the port is taken, so a session
+      // never starts a game that cannot be made
+      options = parse(gameArgs);
+      newModel(type, options);
     } catch (IllegalArgumentException e) {
       System.out.println(e.getMessage());
+      System.out.println(USAGE);
+      return;
+    }
+    // each session already buffers its output, in a writer or the session
+    // itself, and a buffer per view would be held by every idle connection
+    GameFactory games = (in, out) -> newController(type, options, in, out, false);
+    try {
+      if (args[0].equals("server")) {
+        try (SolitaireServer server = new SolitaireServer(
+                new ServerSocket(Integer.parseInt(args[1])), games)) {
+          server.serve();
+        }
+      } else {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(Integer.parseInt(args[1])));
+        try (NioSolitaireServer server = new NioSolitaireServer(channel, games)) {
+          server.serve();
+        }
+      }
+    } catch (NumberFormatException e) {
+      System.out.println("Invalid port.");
+    } catch (IOException e) {
+      System.out.println("Server stopped: " + e.getMessage());
     }
   }
 }
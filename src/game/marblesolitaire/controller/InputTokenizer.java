@@ -0,0 +1,168 @@
+package game.marblesolitaire.controller;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * This class splits the input of the game into whitespace separated tokens,
+ * as Scanner does with its default delimiter, without regular expressions
+ * and without building a String per token. Numbers are parsed in place by
+ * the same rules as Integer.parseInt, and the quit command is recognized as
+ * a single q or Q. Input is read into one buffer that is reused, and a
+ * Readable that fails to read is treated as the end of the input. Input that
+ * arrives in pieces, as on a non-blocking channel, can instead be fed one
+ * character at a time.
+ */
+public final class InputTokenizer {
+  private static final int BUFFER_SIZE = 1024;
+
+  /**
+   * The kinds of token found in the input.
+   */
+  public enum Kind {
+    /** A number in the range of an int, its value given by value(). */
+    Number,
+    /** The quit command, q or Q. */
+    Quit,
+    /** Any other token. */
+    Other,
+    /** No more tokens. */
+    End
+  }
+
+  private final Readable in;
+  private final CharBuffer buffer;
+  private boolean ended;
+  private int value;
+  // state of the token being read: its length so far, its first character,
+  // and whether it still reads as a number
+  private int length;
+  private int first;
+  private boolean negative;
+  private boolean numeric;
+  private boolean signOnly;
+  private long magnitude;
+
+  /**
+   * Constructs a tokenizer reading from the given input.
+   *
+   * @param in the input of the game.
+   * @throws IllegalArgumentException if the input is null.
+   */
+  public InputTokenizer(Readable in) {
+    if (in == null) {
+      throw new IllegalArgumentException("Null input.");
+    }
+    this.in = in;
+    this.buffer = CharBuffer.allocate(BUFFER_SIZE);
+    this.buffer.flip();
+  }
+
+  /**
+   * Constructs a tokenizer without input of its own, whose characters are
+   * given one at a time to feed, for input that arrives in pieces.
+   */
+  public InputTokenizer() {
+    this.in = null;
+    this.buffer = null;
+    this.ended = true;
+  }
+
+  /**
+   * Read the next token, blocking until it is complete or the input ends.
+   *
+   * @return the kind of the token read.
+   */
+  public Kind next() {
+    int c;
+    while ((c = read()) >= 0) {
+      Kind kind = feed((char) c);
+      if (kind != null) {
+        return kind;
+      }
+    }
+    return finish();
+  }
+
+  /**
+   * Take the next character of the input. A token is complete once the
+   * whitespace after it is fed.
+   *
+   * @param c the next character.
+   * @return the kind of the token completed by the character, or null if
+   *     no token was completed.
+   */
+  public Kind feed(char c) {
+    if (Character.isWhitespace(c)) {
+      return length > 0 ? completeToken() : null;
+    }
+    int digit = Character.digit(c, 10);
+    if (length == 0) {
+      first = c;
+      negative = c == '-';
+      signOnly = negative || c == '+';
+      numeric = signOnly || digit >= 0;
+      magnitude = signOnly ? 0 : digit;
+    } else if (digit < 0) {
+      numeric = false;
+    } else if (numeric) {
+      signOnly = false;
+      magnitude = magnitude * 10 + digit;
+      if (magnitude > (negative ? 1L << 31 : Integer.MAX_VALUE)) {
+        numeric = false;
+      }
+    }
+    length++;
+    return null;
+  }
+
+  /**
+   * Mark the end of the input, completing the token being read if any.
+   *
+   * @return the kind of the last token, or End if there is none.
+   */
+  public Kind finish() {
+    return length > 0 ? completeToken() : Kind.End;
+  }
+
+  /**
+   * Return the value of the last token read, which must be a number.
+   *
+   * @return the value of the number.
+   */
+  public int value() {
+    return value;
+  }
+
+  // helper method that ends the token being read and returns its kind.
+  private Kind completeToken() {
+    int tokenLength = length;
+    length = 0;
+    if (tokenLength == 1 && (first == 'q' || first == 'Q')) {
+      return Kind.Quit;
+    }
+    if (!numeric || signOnly) {
+      return Kind.Other;
+    }
+    value = (int) (negative ? -magnitude : magnitude);
+    return Kind.Number;
+  }
+
+  // helper method that returns the next character of the input, refilling
+  // the buffer when it runs out, or -1 at the end of the input.
+  private int read() {
+    while (buffer == null || !buffer.hasRemaining()) {
+      if (ended) {
+        return -1;
+      }
+      buffer.clear();
+      try {
+        ended = in.read(buffer) < 0;
+      } catch (IOException e) {
+        ended = true;
+      }
+      buffer.flip();
+    }
+    return buffer.get();
+  }
+}
@@ -1,8 +1,6 @@
 package game.marblesolitaire.controller;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Scanner;
 
 import game.marblesolitaire.model.single.MarbleSolitaireModel;
 import game.marblesolitaire.view.MarbleSolitaireView;
@@ -16,9 +14,16 @@ public class MarbleSolitaireControllerImpl implements MarbleSolitaireController
   private final MarbleSolitaireModel m;
   private final MarbleSolitaireView view;
   private final Readable in;
+  private final RenderPolicy policy;
+  // coordinates of the move being read, and how many were read so far
+  private final int[] pos = new int[4];
+  private int pending;
+  // whether the game was quit or is over
+  private boolean finished;
 
   /**
-   * Constructs an instance of a controller for the marble solitaire game.
+   * Constructs an instance of a controller for the marble solitaire game,
+   * which draws the board after every move.
    * @param m the model of the solitaire game.
    * @param view the view of the model of the game.
    * @param in the input coming from the user.
@@ -26,12 +31,29 @@ public class MarbleSolitaireControllerImpl implements MarbleSolitaireController
    */
   public MarbleSolitaireControllerImpl(MarbleSolitaireModel m,
                                        MarbleSolitaireView view, Readable in) {
-    if (m == null || view == null || in == null) {
+    this(m, view, in, RenderPolicy.everyMove());
+  }
+
+  /**
+   * Constructs an instance of a controller for the marble solitaire game,
+   * which draws the board after the moves chosen by the given policy.
+   * @param m the model of the solitaire game.
+   * @param view the view of the model of the game.
+   * @param in the input coming from the user.
+   * @param policy the policy deciding after which moves the board is drawn.
+   * @throws IllegalArgumentException if any of the model, view, input or
+   *     policy is null.
+   */
+  public MarbleSolitaireControllerImpl(MarbleSolitaireModel m,
+                                       MarbleSolitaireView view, Readable in,
+                                       RenderPolicy policy) {
+    if (m == null || view == null || in == null || policy == null) {
       throw new IllegalArgumentException("Invalid Controller.");
     }
     this.m = m;
     this.view = view;
     this.in = in;
+    this.policy = policy;
   }
 
   /** Sets the game in motion for the user to play the game.
@@ -42,60 +64,142 @@ public class MarbleSolitaireControllerImpl implements MarbleSolitaireController
    */
   @Override
   public void playGame() throws IllegalStateException {
+    start();
+    InputTokenizer tokens = new InputTokenizer(this.in);
+    InputTokenizer.Kind input;
+    while (!(input = tokens.next()).equals(InputTokenizer.Kind.End)) {
+      if (!step(input, tokens.value())) {
+        return;
+      }
+    }
+    endOfInput();
+  }
+
+  /**
+   * Start the game without reading any input, by rendering the board and
+   * the score. Together with step and endOfInput this plays the game the
+   * same way as playGame, but lets the caller hand over the tokens of the
+   * input as they arrive instead of blocking on the Readable.
+   *
+   * @throws IllegalStateException if the Appendable object is unable to
+   *     transmit output
+   */
+  public void start() throws IllegalStateException {
+    pending = 0;
+    finished = false;
     boardHelper();
     presentHelper("\nScore: " + this.m.getScore() + "\n");
+    flushHelper();
+    this.policy.start();
+  }
 
-    Scanner scan = new Scanner(this.in);
-    ArrayList<Integer> pos = new ArrayList<>();
-
-    while (scan.hasNext()) {
-      String input = scan.next();
+  /**
+   * Play one token of the input: a number is one coordinate of a move, and
+   * the move is made once four positive numbers were given, a q quits the
+   * game, and any other token is ignored.
+   *
+   * @param input the kind of the token.
+   * @param value the value of the token if it is a number.
+   * @return true if the game goes on, false if it was quit or is over.
+   * @throws IllegalStateException if the Appendable object is unable to
+   *     transmit output
+   */
+  public boolean step(InputTokenizer.Kind input, int value) throws IllegalStateException {
+    if (finished) {
+      return false;
+    }
 
-      // see if quitting game
-      if (input.equalsIgnoreCase("q")) {
-        presentHelper("Game quit!\nState of game when quit:\n");
-        boardHelper();
-        presentHelper("\nScore: " + this.m.getScore());
-        return;
-      }
+    // see if quitting game
+    if (input.equals(InputTokenizer.Kind.Quit)) {
+      presentHelper("Game quit!\nState of game when quit:\n");
+      boardHelper();
+      presentHelper("\nScore: " + this.m.getScore());
+      flushHelper();
+      finished = true;
+      return false;
+    }
 
-      // see if game is over
-      if (this.m.isGameOver()) {
-        break;
-      }
+    // see if game is over
+    if (this.m.isGameOver()) {
+      gameOverHelper();
+      return false;
+    }
 
-      // see if any valid move
-      if (isInteger(input) && Integer.parseInt(input) > 0) {
-        pos.add(Integer.parseInt(input));
-        if (pos.size() == 4) {
-          moveHelper(pos.get(0), pos.get(1), pos.get(2), pos.get(3));
-          pos.clear();
-          if (this.m.isGameOver()) {
-            break;
-          }
+    // see if any valid move
+    if (input.equals(InputTokenizer.Kind.Number) && value > 0) {
+      pos[pending++] = value;
+      if (pending == 4) {
+        boolean moved = moveHelper(pos[0], pos[1], pos[2], pos[3]);
+        pending = 0;
+        if (this.m.isGameOver()) {
+          gameOverHelper();
+          return false;
+        }
+        // only moves that were made count towards the policy
+        if (moved ? this.policy.renderAfterMove() : this.policy.renderAfterInvalidMove()) {
           boardHelper();
           presentHelper("\nScore: " + this.m.getScore() + "\n");
         }
+        flushHelper();
       }
     }
+    return true;
+  }
+
+  /**
+   * End the game because the input ended.
+   *
+   * @throws IllegalStateException if the game is neither quit nor over, or
+   *     the Appendable object is unable to transmit output
+   */
+  public void endOfInput() throws IllegalStateException {
+    if (finished) {
+      return;
+    }
 
     // see if game is over, otherwise throw exception
     if (this.m.isGameOver()) {
-      presentHelper("Game over!\n");
-      boardHelper();
-      presentHelper("\nScore: " + this.m.getScore());
+      gameOverHelper();
     } else {
+      flushHelper();
       throw new IllegalStateException("No more input.");
     }
   }
 
-  private void moveHelper(int fromR, int fromC, int toR, int toC) {
-    try {
-      this.m.move(fromR - 1, fromC - 1,
-              toR - 1, toC - 1);
-    } catch (IllegalArgumentException e) {
+  /**
+   * Make the moves of a script on the model without rendering anything, for
+   * replaying recorded games in bulk. The script holds four positive
+   * numbers per move, the from row, from column, to row and to column
+   * starting at 1, as a player would type them. Moves that are not
+   * possible are skipped, and the moves after the game is over are ignored.
+   * No objects are allocated.
+   *
+   * @param script the moves to make, four numbers each.
+   * @return the number of moves made.
+   * @throws IllegalArgumentException if the script is null or its length is
+   *     not a multiple of four.
+   */
+  public int playScript(int[] script) throws IllegalArgumentException {
+    if (script == null || script.length % 4 != 0) {
+      throw new IllegalArgumentException("Invalid script.");
+    }
+    int made = 0;
+    for (int i = 0; i < script.length && !this.m.isGameOver(); i += 4) {
+      if (this.m.tryMove(script[i] - 1, script[i + 1] - 1,
+              script[i + 2] - 1, script[i + 3] - 1)) {
+        made++;
+      }
+    }
+    return made;
+  }
+
+  private boolean moveHelper(int fromR, int fromC, int toR, int toC) {
+    if (!this.m.tryMove(fromR - 1, fromC - 1,
+            toR - 1, toC - 1)) {
       presentHelper("Invalid move. Play again.\n");
+      return false;
     }
+    return true;
   }
 
   private void presentHelper(String str) throws IllegalStateException {
@@ -106,20 +210,27 @@ public class MarbleSolitaireControllerImpl implements MarbleSolitaireController
     }
   }
 
-  private void boardHelper() throws IllegalStateException {
+  private void gameOverHelper() throws IllegalStateException {
+    presentHelper("Game over!\n");
+    boardHelper();
+    presentHelper("\nScore: " + this.m.getScore());
+    flushHelper();
+    finished = true;
+  }
+
+  private void flushHelper() throws IllegalStateException {
     try {
-      this.view.renderBoard();
+      this.view.flush();
     } catch (IOException e) {
-      throw new IllegalStateException("Fail to append board.");
+      throw new IllegalStateException("Fail to flush output.");
     }
   }
 
-  private boolean isInteger(String input) {
+  private void boardHelper() throws IllegalStateException {
     try {
-      Integer.parseInt(input);
-      return true;
-    } catch (NumberFormatException e) {
-      return false;
+      this.view.renderBoard();
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to append board.");
     }
   }
 }
@@ -0,0 +1,110 @@
+package game.marblesolitaire.controller;
+
+/**
+ * This class decides after which moves the controller draws the board. The
+ * board is always drawn when the game starts, is over or is quit; in between
+ * it is drawn after every move, after every n-th move, never, or at most once
+ * per time interval. A policy counts the moves of one game at a time, so
+ * each controller needs its own.
+ */
+public final class RenderPolicy {
+  private final int every;
+  private final long intervalNanos;
+  private int moves;
+  private long lastRender;
+
+  // helper constructor, a zero every means the board is never drawn by
+  // count and a negative interval means it is never drawn by time.
+  private RenderPolicy(int every, long intervalNanos) {
+    this.every = every;
+    this.intervalNanos = intervalNanos;
+  }
+
+  /**
+   * Return a policy that draws the board after every move.
+   *
+   * @return the new policy.
+   */
+  public static RenderPolicy everyMove() {
+    return new RenderPolicy(1, -1);
+  }
+
+  /**
+   * Return a policy that draws the board after every n-th move.
+   *
+   * @param n the number of moves between two boards.
+   * @return the new policy.
+   * @throws IllegalArgumentException if n is not positive.
+   */
+  public static RenderPolicy everyMoves(int n) throws IllegalArgumentException {
+    if (n < 1) {
+      throw new IllegalArgumentException("Invalid number of moves.");
+    }
+    return new RenderPolicy(n, -1);
+  }
+
+  /**
+   * Return a policy that only draws the board when the game starts, is over
+   * or is quit.
+   *
+   * @return the new policy.
+   */
+  public static RenderPolicy onlyAtEnd() {
+    return new RenderPolicy(0, -1);
+  }
+
+  /**
+   * Return a policy that draws the board after a move only if the given
+   * time has passed since the board was last drawn.
+   *
+   * @param millis the smallest time between two boards, in milliseconds.
+   * @return the new policy.
+   * @throws IllegalArgumentException if the time is negative.
+   */
+  public static RenderPolicy throttled(long millis) throws IllegalArgumentException {
+    if (millis < 0) {
+      throw new IllegalArgumentException("Invalid interval.");
+    }
+    return new RenderPolicy(0, millis * 1_000_000L);
+  }
+
+  /**
+   * Start counting a new game, whose first board was just drawn.
+   */
+  public void start() {
+    moves = 0;
+    lastRender = System.nanoTime();
+  }
+
+  /**
+   * Determine if the board should be drawn again after a move that could
+   * not be made. The board did not change, so only the policy that draws
+   * after every move draws it again, as the controller always did, and the
+   * attempt is not counted as a move.
+   *
+   * @return true if the board should be drawn, false otherwise.
+   */
+  public boolean renderAfterInvalidMove() {
+    return every == 1;
+  }
+
+  /**
+   * Count a move and determine if the board should be drawn after it.
+   *
+   * @return true if the board should be drawn, false otherwise.
+   */
+  public boolean renderAfterMove() {
+    moves++;
+    if (every > 0 && moves % every == 0) {
+      return true;
+    }
+    if (intervalNanos >= 0) {
+      long now = System.nanoTime();
+      if (now - lastRender >= intervalNanos) {
+        lastRender = now;
+        return true;
+      }
+    }
+    return false;
+  }
+}
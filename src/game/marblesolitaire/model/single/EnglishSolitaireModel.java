@@ -75,7 +75,7 @@ public class EnglishSolitaireModel extends AbstractSquareShapedModels
         if ((r < midS || r > midE) && (c < midS || c > midE)) {
           board[r][c] = SlotState.Invalid;
         } else {
-          board[r][c] = SlotState.Marble;
+          placeMarble(r, c);
         }
       }
     }
@@ -24,6 +24,41 @@ public interface MarbleSolitaireModel extends MarbleSolitaireModelState {
   void move(int fromRow, int fromCol, int toRow, int toCol) throws
           IllegalArgumentException;
 
+  /**
+   * Determine if a single marble can be moved from a given position to
+   * another given position, by the same rules as move. Positions off the
+   * board are simply not legal, no exception is thrown.
+   *
+   * @param fromRow the row number of the position to be moved from
+   *                (starts at 0)
+   * @param fromCol the column number of the position to be moved from
+   *                (starts at 0)
+   * @param toRow   the row number of the position to be moved to
+   *                (starts at 0)
+   * @param toCol   the column number of the position to be moved to
+   *                (starts at 0)
+   * @return true if the move is possible, false otherwise
+   */
+  boolean isLegalMove(int fromRow, int fromCol, int toRow, int toCol);
+
+  /**
+   * Move a single marble from a given position to another given position
+   * if the move is legal, and leave the board unchanged otherwise. This
+   * behaves like move but reports an impossible move by its result
+   * instead of an exception.
+   *
+   * @param fromRow the row number of the position to be moved from
+   *                (starts at 0)
+   * @param fromCol the column number of the position to be moved from
+   *                (starts at 0)
+   * @param toRow   the row number of the position to be moved to
+   *                (starts at 0)
+   * @param toCol   the column number of the position to be moved to
+   *                (starts at 0)
+   * @return true if the marble was moved, false if the move is not possible
+   */
+  boolean tryMove(int fromRow, int fromCol, int toRow, int toCol);
+
   /**
    * Determine and return if the game is over or not. A game is over if no
    * more moves can be made.
@@ -32,5 +67,33 @@ public interface MarbleSolitaireModel extends MarbleSolitaireModelState {
    */
   boolean isGameOver();
 
+  /**
+   * Fill the given buffer with every move that can be made right now, in no
+   * particular order, each packed into an int by MoveEncoding. If the buffer
+   * is too small, only as many moves as fit are written, and the returned
+   * count tells the caller how large a buffer is needed. No objects are
+   * allocated.
+   *
+   * @param moves the buffer to fill with encoded moves
+   * @return the number of legal moves, which may exceed the buffer length
+   */
+  int getLegalMoves(int[] moves);
+
+  /**
+   * Take back the last move made, putting back the two marbles it removed
+   * and taking away the one it placed. Moves can be undone one after the
+   * other back to the start of the game, and undone moves can be made
+   * again with redo until a new move is made.
+   *
+   * @return true if a move was taken back, false if there was none
+   */
+  boolean undo();
+
+  /**
+   * Make again the last move taken back by undo.
+   *
+   * @return true if a move was made again, false if there was none
+   */
+  boolean redo();
 
 }
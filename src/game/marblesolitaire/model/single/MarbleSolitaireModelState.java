@@ -35,4 +35,43 @@ public interface MarbleSolitaireModelState {
    * @return the number of marbles currently on the board
    */
   int getScore();
+
+  /**
+   * Return a 64-bit hash of the marbles currently on the board. Two states
+   * with marbles on the same slots have the same hash, and moves keep the
+   * hash up to date so reading it never walks the board.
+   *
+   * @return the hash of the current position
+   */
+  long getPositionHash();
+
+  /**
+   * Return the number of times the marbles of this board changed so far,
+   * every move, undo and redo being one change. States that do not keep
+   * track of their changes return -1, which is what this method does by
+   * default.
+   *
+   * @return the number of changes, or -1 if they are not tracked
+   */
+  default long getChangeCount() {
+    return -1;
+  }
+
+  /**
+   * Fill the given buffer with the moves of the changes made after the given
+   * number of changes, the oldest first, each packed into an int by
+   * MoveEncoding. An undone move is given as it was made, as undoing it
+   * changes the same three slots. If the buffer is too small, only as many
+   * moves as fit are written. No objects are allocated. States that do not
+   * keep track of their changes return -1, which is what this method does by
+   * default.
+   *
+   * @param since the number of changes already seen, from getChangeCount
+   * @param moves the buffer to fill with encoded moves
+   * @return the number of changes after the given one, which may exceed the
+   *         buffer length, or -1 if they are not known
+   */
+  default int getChangedMoves(long since, int[] moves) {
+    return -1;
+  }
 }
@@ -0,0 +1,81 @@
+package game.marblesolitaire.model.single;
+
+/**
+ * This class packs a move of the marble solitaire game into a single int so
+ * that lists of moves can be kept in primitive buffers. A move is stored as
+ * the row and column of its 'from' position and the direction of the jump,
+ * each coordinate in 13 bits, so boards up to a size of 8192 are supported.
+ * The 'to' position is always two slots away from the 'from' position.
+ */
+public final class MoveEncoding {
+  private static final int DIR_BITS = 4;
+  private static final int COORD_BITS = 13;
+  private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+
+  private MoveEncoding() {
+  }
+
+  /**
+   * Encode the move from a given position to another given position.
+   *
+   * @param fromRow the row number of the position to be moved from (starts at 0).
+   * @param fromCol the column number of the position to be moved from (starts at 0).
+   * @param toRow the row number of the position to be moved to (starts at 0).
+   * @param toCol the column number of the position to be moved to (starts at 0).
+   * @return the move as a non-negative int.
+   * @throws IllegalArgumentException if a position is out of the supported
+   *     range or the 'to' position is not two slots away from the 'from' position.
+   */
+  public static int encode(int fromRow, int fromCol, int toRow, int toCol)
+          throws IllegalArgumentException {
+    int dRow = toRow - fromRow;
+    int dCol = toCol - fromCol;
+    if (fromRow < 0 || fromCol < 0 || fromRow > COORD_MASK || fromCol > COORD_MASK
+            || (dRow != 0 && Math.abs(dRow) != 2) || (dCol != 0 && Math.abs(dCol) != 2)
+            || (dRow == 0 && dCol == 0)) {
+      throw new IllegalArgumentException("Move cannot be encoded.");
+    }
+    return (fromRow << (COORD_BITS + DIR_BITS)) | (fromCol << DIR_BITS)
+            | ((dRow / 2 + 1) << 2) | (dCol / 2 + 1);
+  }
+
+  /**
+   * Return the row of the 'from' position of an encoded move.
+   *
+   * @param move the encoded move.
+   * @return the row of the position to be moved from.
+   */
+  public static int fromRow(int move) {
+    return move >>> (COORD_BITS + DIR_BITS);
+  }
+
+  /**
+   * Return the column of the 'from' position of an encoded move.
+   *
+   * @param move the encoded move.
+   * @return the column of the position to be moved from.
+   */
+  public static int fromCol(int move) {
+    return (move >>> DIR_BITS) & COORD_MASK;
+  }
+
+  /**
+   * Return the row of the 'to' position of an encoded move.
+   *
+   * @param move the encoded move.
+   * @return the row of the position to be moved to.
+   */
+  public static int toRow(int move) {
+    return fromRow(move) + 2 * (((move >>> 2) & 3) - 1);
+  }
+
+  /**
+   * Return the column of the 'to' position of an encoded move.
+   *
+   * @param move the encoded move.
+   * @return the column of the position to be moved to.
+   */
+  public static int toCol(int move) {
+    return fromCol(move) + 2 * ((move & 3) - 1);
+  }
+}
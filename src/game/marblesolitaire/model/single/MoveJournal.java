@@ -0,0 +1,145 @@
+package game.marblesolitaire.model.single;
+
+/**
+ * This class keeps the moves made on a model so that they can be undone and
+ * redone. Moves are stored as ints, in whatever packing the model chooses,
+ * in a ring buffer of fixed capacity: once it is full, recording a move
+ * forgets the oldest one. Moves that were undone stay in the buffer until a
+ * new move is recorded, so recording, undoing and redoing never allocate.
+ * The journal also counts every move recorded, undone or redone as a
+ * change of the board, and keeps the moves of as many of the latest changes
+ * as it keeps moves, so that a reader can find the slots that changed.
+ */
+public final class MoveJournal {
+  private final int[] entries;
+  private final int mask;
+  // index of the oldest move still kept
+  private int first;
+  // number of moves that can be undone
+  private int done;
+  // number of undone moves that can be redone
+  private int undone;
+  // moves of the latest changes, by change count
+  private final int[] changes;
+  private long changeCount;
+
+  /**
+   * Constructs an empty journal that keeps at least the given number of moves.
+   *
+   * @param capacity the number of moves to keep.
+   * @throws IllegalArgumentException if the capacity is not positive.
+   */
+  public MoveJournal(int capacity) throws IllegalArgumentException {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid journal capacity.");
+    }
+    this.entries = new int[Integer.highestOneBit(2 * capacity - 1)];
+    this.mask = entries.length - 1;
+    this.changes = new int[entries.length];
+  }
+
+  /**
+   * Record a new move. Every undone move is forgotten, and if the journal
+   * is full the oldest move is forgotten too.
+   *
+   * @param move the move that was made.
+   */
+  public void record(int move) {
+    if (done == entries.length) {
+      first = (first + 1) & mask;
+      done--;
+    }
+    entries[(first + done) & mask] = move;
+    done++;
+    undone = 0;
+    changed(move);
+  }
+
+  /**
+   * Determine if there is a move to undo.
+   *
+   * @return true if a move can be undone, false otherwise.
+   */
+  public boolean canUndo() {
+    return done > 0;
+  }
+
+  /**
+   * Determine if there is an undone move to redo.
+   *
+   * @return true if a move can be redone, false otherwise.
+   */
+  public boolean canRedo() {
+    return undone > 0;
+  }
+
+  /**
+   * Take back the last move made and return it, so that the model can
+   * revert it.
+   *
+   * @return the move to revert.
+   * @throws IllegalStateException if there is no move to undo.
+   */
+  public int undo() throws IllegalStateException {
+    if (done == 0) {
+      throw new IllegalStateException("No move to undo.");
+    }
+    done--;
+    undone++;
+    return changed(entries[(first + done) & mask]);
+  }
+
+  /**
+   * Take the last undone move again and return it, so that the model can
+   * make it.
+   *
+   * @return the move to make.
+   * @throws IllegalStateException if there is no move to redo.
+   */
+  public int redo() throws IllegalStateException {
+    if (undone == 0) {
+      throw new IllegalStateException("No move to redo.");
+    }
+    undone--;
+    return changed(entries[(first + done++) & mask]);
+  }
+
+  /**
+   * Return the number of changes so far, every move recorded, undone or
+   * redone being one change.
+   *
+   * @return the number of changes.
+   */
+  public long getChangeCount() {
+    return changeCount;
+  }
+
+  /**
+   * Fill the given buffer with the moves of the changes made after the
+   * given number of changes, the oldest first. An undone move is given as
+   * it was recorded, as undoing it changes the same slots. If the buffer is
+   * too small, only as many moves as fit are written.
+   *
+   * @param since the number of changes already seen.
+   * @param moves the buffer to fill with moves.
+   * @return the number of changes after the given one, which may exceed the
+   *     buffer length, or -1 if they are no longer kept or never happened.
+   */
+  public int getChangesSince(long since, int[] moves) {
+    if (since < 0 || since > changeCount || changeCount - since > changes.length) {
+      return -1;
+    }
+    int count = (int) (changeCount - since);
+    for (int i = 0; i < count && i < moves.length; i++) {
+      moves[i] = changes[(int) ((since + i) & mask)];
+    }
+    return count;
+  }
+
+  // helper method that counts a change of the given move and returns it.
+  private int changed(int move) {
+    changes[(int) (changeCount & mask)] = move;
+    changeCount++;
+    return move;
+  }
+}
@@ -1,14 +1,33 @@
 package game.marblesolitaire.model.withMultiple;
 
+import java.util.Arrays;
+
 import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.single.MoveEncoding;
+import game.marblesolitaire.model.single.MoveJournal;
 
 /**
  * Abstract Class representing an abstract marble solitaire model.
  */
 public abstract class AbstractSolitaireModel implements MarbleSolitaireModel {
 
+  // row and column offsets of the horizontal and vertical jumps
+  protected static final int[][] SQUARE_DIRECTIONS = {{2, 0}, {-2, 0}, {0, 2}, {0, -2}};
+
   protected SlotState[][] board;
   protected final int arm;
+  // number of marbles on the board, counted by initialBoard and kept up to date by move
+  protected int score;
+  // Zobrist hash of the marbles on the board, the xor of the keys of their slots
+  protected long hash;
+  // ids of the jumps that can be made right now, in no particular order; a jump id is
+  // (row * size + col) * number of directions + direction index of its from slot
+  private int[] frontier;
+  // position of each jump id in frontier, or -1 if the jump cannot be made
+  private int[] frontierPos;
+  private int frontierSize;
+  // moves made so far, packed by MoveEncoding
+  private final MoveJournal journal;
 
   /**
    * Constructor which takes in values for arm thickness and the empty slot row and column.
@@ -32,12 +51,40 @@ public abstract class AbstractSolitaireModel implements MarbleSolitaireModel {
       throw new IllegalArgumentException("Invalid empty cell position ("
               + sRow + ", " + sCol + ")");
     }
-    board[sRow][sCol] = SlotState.Empty;
+    removeMarble(sRow, sCol);
+    initialFrontier(size);
+    // a game never has more moves than marbles
+    journal = new MoveJournal(Math.max(score, 1));
   }
 
-  // Creates a board based on the given values.
+  // Creates a board based on the given values, putting every marble with placeMarble.
   protected abstract void initialBoard(int size);
 
+  // helper method that puts a marble on the given slot and adds it to the
+  // score and the hash.
+  protected void placeMarble(int row, int col) {
+    board[row][col] = SlotState.Marble;
+    score++;
+    hash ^= zobristKey(row, col);
+  }
+
+  // helper method that takes the marble off the given slot and removes it
+  // from the score and the hash.
+  protected void removeMarble(int row, int col) {
+    board[row][col] = SlotState.Empty;
+    score--;
+    hash ^= zobristKey(row, col);
+  }
+
+  // helper method that returns the random looking key of a slot, mixed from
+  // its position so that every model agrees on it without a stored table.
+  static long zobristKey(int row, int col) {
+    long z = (((long) row << 32) | col) + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
   // helper method that returns the int value of the size of the game.
   protected abstract int modelSize(int arm);
 
@@ -79,15 +126,67 @@ public abstract class AbstractSolitaireModel implements MarbleSolitaireModel {
       throw new IllegalArgumentException("Invalid move position.");
     }
 
-    if (possibleMove(fromRow, fromCol, toRow, toCol)) {
-      board[fromRow][fromCol] = SlotState.Empty;
-      board[(fromRow + toRow) / 2][(fromCol + toCol) / 2] = SlotState.Empty;
-      board[toRow][toCol] = SlotState.Marble;
-    } else {
+    if (!tryMove(fromRow, fromCol, toRow, toCol)) {
       throw new IllegalArgumentException("Not valid move.");
     }
   }
 
+  @Override
+  public boolean isLegalMove(int fromRow, int fromCol, int toRow, int toCol) {
+    return possibleMove(fromRow, fromCol, toRow, toCol);
+  }
+
+  @Override
+  public boolean tryMove(int fromRow, int fromCol, int toRow, int toCol) {
+    if (!possibleMove(fromRow, fromCol, toRow, toCol)) {
+      return false;
+    }
+    jump(fromRow, fromCol, toRow, toCol, true);
+    journal.record(MoveEncoding.encode(fromRow, fromCol, toRow, toCol));
+    return true;
+  }
+
+  @Override
+  public boolean undo() {
+    if (!journal.canUndo()) {
+      return false;
+    }
+    int move = journal.undo();
+    jump(MoveEncoding.fromRow(move), MoveEncoding.fromCol(move),
+            MoveEncoding.toRow(move), MoveEncoding.toCol(move), false);
+    return true;
+  }
+
+  @Override
+  public boolean redo() {
+    if (!journal.canRedo()) {
+      return false;
+    }
+    int move = journal.redo();
+    jump(MoveEncoding.fromRow(move), MoveEncoding.fromCol(move),
+            MoveEncoding.toRow(move), MoveEncoding.toCol(move), true);
+    return true;
+  }
+
+  // helper method that makes a legal jump, or reverts it if forward is false,
+  // and rechecks the jumps around its three slots.
+  private void jump(int fromRow, int fromCol, int toRow, int toCol, boolean forward) {
+    int midRow = (fromRow + toRow) / 2;
+    int midCol = (fromCol + toCol) / 2;
+    if (forward) {
+      removeMarble(fromRow, fromCol);
+      removeMarble(midRow, midCol);
+      placeMarble(toRow, toCol);
+    } else {
+      placeMarble(fromRow, fromCol);
+      placeMarble(midRow, midCol);
+      removeMarble(toRow, toCol);
+    }
+    refreshAround(fromRow, fromCol);
+    refreshAround(midRow, midCol);
+    refreshAround(toRow, toCol);
+  }
+
   // possible move helper method to see
   // if the move is possible vertically and horizontally
   protected boolean moveHelper(int fromRow, int fromCol, int toRow, int toCol) {
@@ -95,43 +194,102 @@ public abstract class AbstractSolitaireModel implements MarbleSolitaireModel {
             || ((fromCol == toCol) && Math.abs(fromRow - toRow) == 2);
   }
 
-  // possible move method to see if the move is possible
+  // possible move method to see if the move is possible, positions off
+  // the board are rejected by their bounds before the board is read.
   protected boolean possibleMove(int fromRow, int fromCol, int toRow, int toCol) {
-    int midRow = (fromRow + toRow) / 2;
-    int midCol = (fromCol + toCol) / 2;
-    boolean validMarble;
-    try {
-      validMarble = board[fromRow][fromCol].equals(SlotState.Marble)
-              && board[midRow][midCol].equals(SlotState.Marble)
-              && board[toRow][toCol].equals(SlotState.Empty);
-      return moveHelper(fromRow, fromCol, toRow, toCol) && validMarble;
-    }
-    catch (IndexOutOfBoundsException e) {
+    int size = getBoardSize();
+    if (checkIndex(size, fromRow, fromCol) || checkIndex(size, toRow, toCol)
+            || !moveHelper(fromRow, fromCol, toRow, toCol)) {
       return false;
     }
+    return board[fromRow][fromCol].equals(SlotState.Marble)
+            && board[(fromRow + toRow) / 2][(fromCol + toCol) / 2].equals(SlotState.Marble)
+            && board[toRow][toCol].equals(SlotState.Empty);
   }
 
-  // helper method to see if there's a move for the given slot
-  protected boolean hasMove(int row, int col) {
-    if (!board[row][col].equals(SlotState.Marble)) {
-      return false;
+  // helper method that returns the row and column offsets of every jump
+  // a marble can make in this model.
+  protected int[][] moveDirections() {
+    return SQUARE_DIRECTIONS;
+  }
+
+  // helper method that checks every jump of the new board once and
+  // fills the frontier with the ones that can be made.
+  private void initialFrontier(int size) {
+    int directions = moveDirections().length;
+    frontier = new int[size * size * directions];
+    frontierPos = new int[frontier.length];
+    Arrays.fill(frontierPos, -1);
+    frontierSize = 0;
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        for (int dir = 0; dir < directions; dir++) {
+          refreshJump(row, col, dir);
+        }
+      }
+    }
+  }
+
+  // helper method that rechecks every jump whose from, middle or to slot
+  // is the given slot, which are the only jumps a change of that slot affects.
+  private void refreshAround(int row, int col) {
+    int[][] directions = moveDirections();
+    for (int dir = 0; dir < directions.length; dir++) {
+      int[] d = directions[dir];
+      refreshJump(row, col, dir);
+      refreshJump(row - d[0] / 2, col - d[1] / 2, dir);
+      refreshJump(row - d[0], col - d[1], dir);
     }
-    return possibleMove(row, col, row + 2, col)
-            || possibleMove(row, col, row - 2, col)
-            || possibleMove(row, col, row, col + 2)
-            || possibleMove(row, col, row, col - 2);
   }
 
+  // helper method that adds the jump from the given slot in the given
+  // direction to the frontier if it can be made, or removes it otherwise.
+  private void refreshJump(int row, int col, int dir) {
+    int size = getBoardSize();
+    if (checkIndex(size, row, col)) {
+      return;
+    }
+    int[] d = moveDirections()[dir];
+    int id = (row * size + col) * moveDirections().length + dir;
+    boolean legal = possibleMove(row, col, row + d[0], col + d[1]);
+    int pos = frontierPos[id];
+    if (legal && pos < 0) {
+      frontier[frontierSize] = id;
+      frontierPos[id] = frontierSize++;
+    } else if (!legal && pos >= 0) {
+      int last = frontier[--frontierSize];
+      frontier[pos] = last;
+      frontierPos[last] = pos;
+      frontierPos[id] = -1;
+    }
+  }
+
+  /**
+   * Determine and return if the game is over or not. A game is over if no
+   * more moves can be made, which is the case when the frontier of jumps
+   * that can be made, kept up to date by every move, is empty.
+   *
+   * @return true if the game is over, false otherwise
+   */
   @Override
   public boolean isGameOver() {
-    for (int row = 0; row < getBoardSize(); row++) {
-      for (int col = 0; col < getBoardSize(); col++) {
-        if (hasMove(row, col)) {
-          return false;
-        }
-      }
+    return frontierSize == 0;
+  }
+
+  @Override
+  public int getLegalMoves(int[] moves) {
+    int size = getBoardSize();
+    int[][] directions = moveDirections();
+    int count = Math.min(frontierSize, moves.length);
+    for (int i = 0; i < count; i++) {
+      int id = frontier[i];
+      int cell = id / directions.length;
+      int[] d = directions[id % directions.length];
+      int row = cell / size;
+      int col = cell % size;
+      moves[i] = MoveEncoding.encode(row, col, row + d[0], col + d[1]);
     }
-    return true;
+    return frontierSize;
   }
 
   @Override
@@ -144,14 +302,21 @@ public abstract class AbstractSolitaireModel implements MarbleSolitaireModel {
 
   @Override
   public int getScore() {
-    int count = 0;
-    for (SlotState[] marbles : board) {
-      for (SlotState marble : marbles) {
-        if (marble.equals(SlotState.Marble)) {
-          count ++;
-        }
-      }
-    }
-    return count;
+    return score;
+  }
+
+  @Override
+  public long getPositionHash() {
+    return hash;
+  }
+
+  @Override
+  public long getChangeCount() {
+    return journal.getChangeCount();
+  }
+
+  @Override
+  public int getChangedMoves(long since, int[] moves) {
+    return journal.getChangesSince(since, moves);
   }
 }
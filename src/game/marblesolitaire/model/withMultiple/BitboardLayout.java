@@ -0,0 +1,333 @@
+package game.marblesolitaire.model.withMultiple;
+
+import java.util.Arrays;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModelState.SlotState;
+import game.marblesolitaire.model.single.MoveEncoding;
+
+/**
+ * This class represents the fixed shape of a marble solitaire board as used
+ * by the bitboard model. Every valid slot of the board is given a bit index,
+ * row by row, and every jump a marble could ever make on the board is stored
+ * as the bit indices of its from, middle and to slots. A layout never changes
+ * once built, so it is shared by every position on the same board.
+ */
+public class BitboardLayout {
+  private final String boardType;
+  private final int arm;
+  private final int size;
+  private final int[] cellAt;
+  private final int[] cellRow;
+  private final int[] cellCol;
+  private final int[] jumpFrom;
+  private final int[] jumpOver;
+  private final int[] jumpTo;
+  private final int[] jumpMove;
+  private final long[] jumpHash;
+  private final int[] firstJump;
+  // jumps whose from, middle or to slot is the slot of each bit index
+  private final int[][] touching;
+
+  /**
+   * Constructs the layout of the board of the given model. The valid slots
+   * and the jump directions are taken from the model, the marbles are not.
+   *
+   * @param model the model whose board shape is used.
+   */
+  BitboardLayout(AbstractSolitaireModel model) {
+    this.boardType = model.getClass().getSimpleName();
+    this.arm = model.arm;
+    this.size = model.getBoardSize();
+    this.cellAt = new int[size * size];
+    int cells = 0;
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        if (model.board[r][c].equals(SlotState.Invalid)) {
+          cellAt[r * size + c] = -1;
+        } else {
+          cellAt[r * size + c] = cells++;
+        }
+      }
+    }
+
+    this.cellRow = new int[cells];
+    this.cellCol = new int[cells];
+    this.firstJump = new int[cells + 1];
+    int[][] directions = model.moveDirections();
+    int[] from = new int[cells * directions.length];
+    int[] over = new int[from.length];
+    int[] to = new int[from.length];
+    int jumps = 0;
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        int cell = cellAt[r * size + c];
+        if (cell < 0) {
+          continue;
+        }
+        cellRow[cell] = r;
+        cellCol[cell] = c;
+        firstJump[cell] = jumps;
+        for (int[] d : directions) {
+          int mid = getCell(r + d[0] / 2, c + d[1] / 2);
+          int end = getCell(r + d[0], c + d[1]);
+          if (mid >= 0 && end >= 0) {
+            from[jumps] = cell;
+            over[jumps] = mid;
+            to[jumps] = end;
+            jumps++;
+          }
+        }
+      }
+    }
+    firstJump[cells] = jumps;
+    this.jumpFrom = Arrays.copyOf(from, jumps);
+    this.jumpOver = Arrays.copyOf(over, jumps);
+    this.jumpTo = Arrays.copyOf(to, jumps);
+    this.jumpMove = new int[jumps];
+    this.jumpHash = new long[jumps];
+    for (int j = 0; j < jumps; j++) {
+      jumpMove[j] = MoveEncoding.encode(cellRow[from[j]], cellCol[from[j]],
+              cellRow[to[j]], cellCol[to[j]]);
+      jumpHash[j] = getCellHash(from[j]) ^ getCellHash(over[j]) ^ getCellHash(to[j]);
+    }
+    int[] touchCount = new int[cells];
+    for (int j = 0; j < jumps; j++) {
+      touchCount[from[j]]++;
+      touchCount[over[j]]++;
+      touchCount[to[j]]++;
+    }
+    this.touching = new int[cells][];
+    for (int cell = 0; cell < cells; cell++) {
+      touching[cell] = new int[touchCount[cell]];
+      touchCount[cell] = 0;
+    }
+    for (int j = 0; j < jumps; j++) {
+      touching[from[j]][touchCount[from[j]]++] = j;
+      touching[over[j]][touchCount[over[j]]++] = j;
+      touching[to[j]][touchCount[to[j]]++] = j;
+    }
+  }
+
+  /**
+   * Return the type of the board this layout was built from, the simple
+   * class name of its model such as EnglishSolitaireModel. Two layouts of
+   * the same type and arm have the same shape.
+   *
+   * @return the type of the board.
+   */
+  public String getBoardType() {
+    return boardType;
+  }
+
+  /**
+   * Return the arm thickness of the board this layout was built from, or
+   * the size of a triangular board.
+   *
+   * @return the arm of the board.
+   */
+  public int getArm() {
+    return arm;
+  }
+
+  /**
+   * Return the size of the board this layout was built from.
+   *
+   * @return the size of the board.
+   */
+  public int getBoardSize() {
+    return size;
+  }
+
+  /**
+   * Return the number of valid slots on the board.
+   *
+   * @return the number of valid slots.
+   */
+  public int getCellCount() {
+    return cellRow.length;
+  }
+
+  /**
+   * Return the number of 64-bit words needed to store one position.
+   *
+   * @return the number of words of a position.
+   */
+  public int getWordCount() {
+    return (cellRow.length + 63) >>> 6;
+  }
+
+  /**
+   * Return the bit index of the slot at the given position.
+   *
+   * @param row the row of the slot, starting at 0.
+   * @param col the column of the slot, starting at 0.
+   * @return the bit index, or -1 if the position is off the board or invalid.
+   */
+  public int getCell(int row, int col) {
+    if (row < 0 || col < 0 || row >= size || col >= size) {
+      return -1;
+    }
+    return cellAt[row * size + col];
+  }
+
+  /**
+   * Return the row of the slot with the given bit index.
+   *
+   * @param cell the bit index of the slot.
+   * @return the row of the slot.
+   */
+  public int getRow(int cell) {
+    return cellRow[cell];
+  }
+
+  /**
+   * Return the column of the slot with the given bit index.
+   *
+   * @param cell the bit index of the slot.
+   * @return the column of the slot.
+   */
+  public int getCol(int cell) {
+    return cellCol[cell];
+  }
+
+  /**
+   * Return the number of jumps on the board.
+   *
+   * @return the number of jumps.
+   */
+  public int getJumpCount() {
+    return jumpFrom.length;
+  }
+
+  /**
+   * Return the bit index of the slot a jump starts from.
+   *
+   * @param jump the index of the jump.
+   * @return the bit index of the from slot.
+   */
+  public int getJumpFrom(int jump) {
+    return jumpFrom[jump];
+  }
+
+  /**
+   * Return the bit index of the slot a jump removes a marble from.
+   *
+   * @param jump the index of the jump.
+   * @return the bit index of the middle slot.
+   */
+  public int getJumpOver(int jump) {
+    return jumpOver[jump];
+  }
+
+  /**
+   * Return the bit index of the slot a jump lands on.
+   *
+   * @param jump the index of the jump.
+   * @return the bit index of the to slot.
+   */
+  public int getJumpTo(int jump) {
+    return jumpTo[jump];
+  }
+
+  /**
+   * Return a jump as a move packed by MoveEncoding.
+   *
+   * @param jump the index of the jump.
+   * @return the encoded move of the jump.
+   */
+  public int getJumpMove(int jump) {
+    return jumpMove[jump];
+  }
+
+  /**
+   * Return the Zobrist key of a slot, the same key AbstractSolitaireModel
+   * uses for the slot at that row and column.
+   *
+   * @param cell the bit index of the slot.
+   * @return the key of the slot.
+   */
+  public long getCellHash(int cell) {
+    return AbstractSolitaireModel.zobristKey(cellRow[cell], cellCol[cell]);
+  }
+
+  /**
+   * Return the change a jump makes to the Zobrist hash of a position, the
+   * xor of the keys of its three slots.
+   *
+   * @param jump the index of the jump.
+   * @return the hash change of the jump.
+   */
+  public long getJumpHash(int jump) {
+    return jumpHash[jump];
+  }
+
+  /**
+   * Return the index of the jump between the two given slots.
+   *
+   * @param from the bit index of the from slot.
+   * @param to the bit index of the to slot.
+   * @return the index of the jump, or -1 if no jump joins the two slots.
+   */
+  public int findJump(int from, int to) {
+    for (int j = firstJump[from]; j < firstJump[from + 1]; j++) {
+      if (jumpTo[j] == to) {
+        return j;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Return the jumps whose from, middle or to slot is the given slot, which
+   * are the only jumps a change of that slot can make or stop being
+   * possible. The array is shared and must not be changed.
+   *
+   * @param cell the bit index of the slot.
+   * @return the indices of the jumps through the slot.
+   */
+  int[] getTouchingJumps(int cell) {
+    return touching[cell];
+  }
+
+  /**
+   * Determine if a jump can be made in the given position, that is its from
+   * and middle slots hold marbles and its to slot is empty.
+   *
+   * @param marbles the position as words of marble bits.
+   * @param jump the index of the jump.
+   * @return true if the jump can be made, false otherwise.
+   */
+  public boolean canJump(long[] marbles, int jump) {
+    return isSet(marbles, jumpFrom[jump]) && isSet(marbles, jumpOver[jump])
+            && !isSet(marbles, jumpTo[jump]);
+  }
+
+  /**
+   * Flip the three slots of a jump in the given position. Applying a jump
+   * that can be made moves the marble, and applying it again takes it back.
+   *
+   * @param marbles the position as words of marble bits.
+   * @param jump the index of the jump.
+   */
+  public void flipJump(long[] marbles, int jump) {
+    flip(marbles, jumpFrom[jump]);
+    flip(marbles, jumpOver[jump]);
+    flip(marbles, jumpTo[jump]);
+  }
+
+  /**
+   * Determine if the slot with the given bit index holds a marble.
+   *
+   * @param marbles the position as words of marble bits.
+   * @param cell the bit index of the slot.
+   * @return true if the slot holds a marble, false otherwise.
+   */
+  public static boolean isSet(long[] marbles, int cell) {
+    return (marbles[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // helper method to flip the bit of the given slot.
+  private static void flip(long[] marbles, int cell) {
+    marbles[cell >>> 6] ^= 1L << cell;
+  }
+}
@@ -0,0 +1,259 @@
+package game.marblesolitaire.model.withMultiple;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.single.MoveJournal;
+
+/**
+ * This class represents a marble solitaire model that stores the board as
+ * bits instead of a grid of slot states. Each valid slot of the board is one
+ * bit, set if the slot holds a marble, so the 33 and 37 slot English and
+ * European boards fit in a single 64-bit word and larger boards use one word
+ * per 64 slots. A move flips the three bits of one precomputed jump. The
+ * board shape and the jump directions are taken from an existing model, so
+ * it plays English, European and Triangular solitaire by the same rules.
+ * Like the grid models, it keeps the jumps that can be made in a frontier
+ * that each move updates from the jumps through its three slots, so game
+ * over and the legal moves are read without scanning the board.
+ */
+public class BitboardSolitaireModel implements MarbleSolitaireModel {
+  private final BitboardLayout layout;
+  private final long[] marbles;
+  private int score;
+  private long hash;
+  // indices of the jumps made so far
+  private final MoveJournal journal;
+  // indices of the jumps that can be made, in no particular order
+  private final int[] frontier;
+  // position of each jump in frontier, or -1 if the jump cannot be made
+  private final int[] frontierPos;
+  private int frontierSize;
+
+  /**
+   * Constructs a bitboard model with the board shape, the jump directions
+   * and the current marbles of the given model. The given model is only
+   * read, later moves on either model do not affect the other, and the
+   * copy starts with no moves to undo.
+   *
+   * @param model the model to copy.
+   * @throws IllegalArgumentException if the model is null or not a model
+   *     of this package.
+   */
+  public BitboardSolitaireModel(MarbleSolitaireModel model) {
+    if (model instanceof BitboardSolitaireModel) {
+      BitboardSolitaireModel other = (BitboardSolitaireModel) model;
+      this.layout = other.layout;
+      this.marbles = other.marbles.clone();
+      this.score = other.score;
+      this.hash = other.hash;
+      this.frontier = other.frontier.clone();
+      this.frontierPos = other.frontierPos.clone();
+      this.frontierSize = other.frontierSize;
+    } else if (model instanceof AbstractSolitaireModel) {
+      AbstractSolitaireModel other = (AbstractSolitaireModel) model;
+      this.layout = new BitboardLayout(other);
+      this.marbles = new long[layout.getWordCount()];
+      for (int cell = 0; cell < layout.getCellCount(); cell++) {
+        if (other.board[layout.getRow(cell)][layout.getCol(cell)]
+                .equals(SlotState.Marble)) {
+          marbles[cell >>> 6] |= 1L << cell;
+          score++;
+          hash ^= layout.getCellHash(cell);
+        }
+      }
+      this.frontier = new int[layout.getJumpCount()];
+      this.frontierPos = new int[layout.getJumpCount()];
+      for (int j = 0; j < layout.getJumpCount(); j++) {
+        frontierPos[j] = -1;
+        refreshJump(j);
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported model.");
+    }
+    this.journal = new MoveJournal(Math.max(score, 1));
+  }
+
+  /**
+   * Return the layout of the board of this model.
+   *
+   * @return the layout of the board.
+   */
+  public BitboardLayout getLayout() {
+    return layout;
+  }
+
+  /**
+   * Return a copy of the current position as words of marble bits, bit i
+   * of the position being the slot with bit index i of the layout.
+   *
+   * @return the current position.
+   */
+  public long[] getPosition() {
+    return marbles.clone();
+  }
+
+  /**
+   * Move a single marble from a given position to another given position.
+   * A move is valid only if both positions are valid positions on board,
+   * they are joined by a jump of this board, there is a marble at the
+   * 'from' position and in the middle slot, and the 'to' position is empty.
+   *
+   * @param fromRow the row number of the position to be moved from (starts at 0).
+   * @param fromCol the column number of the position to be moved from (starts at 0).
+   * @param toRow the row number of the position to be moved to (starts at 0).
+   * @param toCol the column number of the position to be moved to (starts at 0).
+   * @throws IllegalArgumentException if the move is not possible or the
+   *     positions are invalid.
+   */
+  @Override
+  public void move(int fromRow, int fromCol, int toRow, int toCol)
+          throws IllegalArgumentException {
+    int from = layout.getCell(fromRow, fromCol);
+    int to = layout.getCell(toRow, toCol);
+    if (from < 0 || to < 0) {
+      throw new IllegalArgumentException("Invalid move position.");
+    }
+
+    if (!tryMove(fromRow, fromCol, toRow, toCol)) {
+      throw new IllegalArgumentException("Not valid move.");
+    }
+  }
+
+  @Override
+  public boolean isLegalMove(int fromRow, int fromCol, int toRow, int toCol) {
+    return findLegalJump(fromRow, fromCol, toRow, toCol) >= 0;
+  }
+
+  @Override
+  public boolean tryMove(int fromRow, int fromCol, int toRow, int toCol) {
+    int jump = findLegalJump(fromRow, fromCol, toRow, toCol);
+    if (jump < 0) {
+      return false;
+    }
+    flip(jump);
+    score--;
+    journal.record(jump);
+    return true;
+  }
+
+  @Override
+  public boolean undo() {
+    if (!journal.canUndo()) {
+      return false;
+    }
+    flip(journal.undo());
+    score++;
+    return true;
+  }
+
+  @Override
+  public boolean redo() {
+    if (!journal.canRedo()) {
+      return false;
+    }
+    flip(journal.redo());
+    score--;
+    return true;
+  }
+
+  // helper method that flips the three slots of a jump, made or taken
+  // back, and rechecks the jumps through those slots.
+  private void flip(int jump) {
+    layout.flipJump(marbles, jump);
+    hash ^= layout.getJumpHash(jump);
+    refreshAround(layout.getJumpFrom(jump));
+    refreshAround(layout.getJumpOver(jump));
+    refreshAround(layout.getJumpTo(jump));
+  }
+
+  // helper method that rechecks every jump through the given slot.
+  private void refreshAround(int cell) {
+    for (int jump : layout.getTouchingJumps(cell)) {
+      refreshJump(jump);
+    }
+  }
+
+  // helper method that adds the given jump to the frontier if it can be
+  // made, or removes it otherwise.
+  private void refreshJump(int jump) {
+    boolean legal = layout.canJump(marbles, jump);
+    int pos = frontierPos[jump];
+    if (legal && pos < 0) {
+      frontier[frontierSize] = jump;
+      frontierPos[jump] = frontierSize++;
+    } else if (!legal && pos >= 0) {
+      int last = frontier[--frontierSize];
+      frontier[pos] = last;
+      frontierPos[last] = pos;
+      frontierPos[jump] = -1;
+    }
+  }
+
+  // helper method that returns the jump between the two given positions
+  // if it can be made, or -1 otherwise.
+  private int findLegalJump(int fromRow, int fromCol, int toRow, int toCol) {
+    int from = layout.getCell(fromRow, fromCol);
+    int to = layout.getCell(toRow, toCol);
+    if (from < 0 || to < 0) {
+      return -1;
+    }
+    int jump = layout.findJump(from, to);
+    return jump >= 0 && layout.canJump(marbles, jump) ? jump : -1;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return frontierSize == 0;
+  }
+
+  @Override
+  public int getLegalMoves(int[] moves) {
+    int count = Math.min(frontierSize, moves.length);
+    for (int i = 0; i < count; i++) {
+      moves[i] = layout.getJumpMove(frontier[i]);
+    }
+    return frontierSize;
+  }
+
+  @Override
+  public int getBoardSize() {
+    return layout.getBoardSize();
+  }
+
+  @Override
+  public SlotState getSlotAt(int row, int col) throws IllegalArgumentException {
+    int size = layout.getBoardSize();
+    if (row < 0 || col < 0 || row >= size || col >= size) {
+      throw new IllegalArgumentException("Out of size position.");
+    }
+    int cell = layout.getCell(row, col);
+    if (cell < 0) {
+      return SlotState.Invalid;
+    }
+    return BitboardLayout.isSet(marbles, cell) ? SlotState.Marble : SlotState.Empty;
+  }
+
+  @Override
+  public int getScore() {
+    return score;
+  }
+
+  @Override
+  public long getPositionHash() {
+    return hash;
+  }
+
+  @Override
+  public long getChangeCount() {
+    return journal.getChangeCount();
+  }
+
+  @Override
+  public int getChangedMoves(long since, int[] moves) {
+    // the journal keeps jump indices, which are turned into encoded moves
+    int count = journal.getChangesSince(since, moves);
+    for (int i = 0; i < count && i < moves.length; i++) {
+      moves[i] = layout.getJumpMove(moves[i]);
+    }
+    return count;
+  }
+}
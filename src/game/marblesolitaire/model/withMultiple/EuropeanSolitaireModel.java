@@ -79,7 +79,7 @@ public class EuropeanSolitaireModel extends AbstractSquareShapedModels
                 && (c <= r - 1 - midE || c > midE + size - 1 - r)) {
           board[r][c] = SlotState.Invalid;
         } else {
-          board[r][c] = SlotState.Marble;
+          placeMarble(r, c);
         }
       }
     }
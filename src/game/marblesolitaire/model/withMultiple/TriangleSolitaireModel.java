@@ -11,6 +11,10 @@ import game.marblesolitaire.model.single.MarbleSolitaireModel;
 public class TriangleSolitaireModel extends AbstractSolitaireModel
         implements MarbleSolitaireModel {
 
+  // row and column offsets of the square shaped jumps plus the two diagonals
+  private static final int[][] TRIANGLE_DIRECTIONS =
+          {{2, 0}, {-2, 0}, {0, 2}, {0, -2}, {2, 2}, {-2, -2}};
+
   /**
    * Initializes the Triangular Solitaire game with a size of 5, and the empty
    * slot is set at the top of the board (0, 0).
@@ -82,7 +86,7 @@ public class TriangleSolitaireModel extends AbstractSolitaireModel
     for (int r = 0; r < size; r++) {
       for (int c = 0; c < size; c++) {
         if (c <= r) {
-          board[r][c] = SlotState.Marble;
+          placeMarble(r, c);
         } else {
           board[r][c] = SlotState.Invalid;
         }
@@ -101,12 +105,12 @@ public class TriangleSolitaireModel extends AbstractSolitaireModel
     return squareShapedMove || diagonalMove;
   }
 
-  // helper method to see if there's a move for the given slot
+  // helper method that returns the jump offsets of the triangular board,
+  // horizontally in its own row and diagonally in the two directions
+  // checked by moveHelper.
   @Override
-  protected boolean hasMove(int row, int col) {
-    boolean squareShapedHas = super.hasMove(row, col);
-    return squareShapedHas || possibleMove(row, col, row + 2, col + 2)
-            || possibleMove(row, col, row - 2, col - 2);
+  protected int[][] moveDirections() {
+    return TRIANGLE_DIRECTIONS;
   }
 
   /**
@@ -0,0 +1,22 @@
+package game.marblesolitaire.server;
+
+import game.marblesolitaire.controller.MarbleSolitaireController;
+
+/**
+ * To represent the way a server starts a new game for each session, with
+ * its own model and view bound to the streams of the session.
+ */
+public interface GameFactory {
+
+  /**
+   * Return a controller of a new game that reads its moves from the given
+   * input and renders the game to the given output.
+   *
+   * @param in the input of the session.
+   * @param out the output of the session, which can be flushed.
+   * @return the controller of the new game.
+   * @throws IllegalArgumentException if the game cannot be created.
+   */
+  MarbleSolitaireController newGame(Readable in, Appendable out)
+          throws IllegalArgumentException;
+}
@@ -0,0 +1,64 @@
+package game.marblesolitaire.server;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class decodes the UTF-8 input of a connection, which arrives in
+ * pieces of any length, into characters. The first bytes of a character
+ * split between two pieces are kept until the rest of it arrives, so the
+ * character is decoded whole instead of being replaced. Bytes that are not
+ * valid UTF-8 are replaced.
+ */
+public final class InputDecoder {
+  private final CharsetDecoder decoder;
+  // bytes of a character split between two pieces, or null if none
+  private byte[] carry;
+
+  /**
+   * Constructs a decoder with no bytes kept.
+   */
+  public InputDecoder() {
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  /**
+   * Clear the given buffer and put the bytes kept from the last piece at
+   * its start, so that the next piece is read after them.
+   *
+   * @param bytes the buffer the next piece is read into.
+   */
+  public void begin(ByteBuffer bytes) {
+    bytes.clear();
+    if (carry != null) {
+      bytes.put(carry);
+      carry = null;
+    }
+  }
+
+  /**
+   * Decode the bytes of the given buffer, from its start up to its
+   * position, into the given character buffer, which is cleared first and
+   * flipped after, ready to be read. The bytes of a character that is not
+   * complete yet are kept for the next piece. The character buffer must
+   * have room for as many characters as there are bytes.
+   *
+   * @param bytes the buffer holding the piece after the kept bytes.
+   * @param chars the buffer receiving the characters.
+   */
+  public void decode(ByteBuffer bytes, CharBuffer chars) {
+    bytes.flip();
+    chars.clear();
+    decoder.decode(bytes, chars, false);
+    chars.flip();
+    if (bytes.hasRemaining()) {
+      carry = new byte[bytes.remaining()];
+      bytes.get(carry);
+    }
+  }
+}
@@ -0,0 +1,371 @@
+package game.marblesolitaire.server;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import game.marblesolitaire.controller.InputTokenizer;
+import game.marblesolitaire.controller.MarbleSolitaireController;
+import game.marblesolitaire.controller.MarbleSolitaireControllerImpl;
+
+/**
+ * This class represents a server that plays many games of marble solitaire
+ * at once on a single thread, one per socket connection, with a selector
+ * watching every connection. A session holds no thread and no buffer while
+ * it waits for its player: when bytes arrive they are decoded and fed to the
+ * tokenizer of the session, and each complete token is played by the step
+ * function of its controller. What the view renders is collected by the
+ * session and written back through a direct buffer shared by all sessions,
+ * and only output the connection cannot take at once is kept per session
+ * until the connection can be written again.
+ */
+public class NioSolitaireServer implements Closeable {
+  private static final int BUFFER_SIZE = 16 * 1024;
+  // input of the controllers, whose tokens are handed over by the sessions
+  private static final Readable NO_INPUT = cb -> -1;
+
+  private final ServerSocketChannel server;
+  private final GameFactory games;
+  private final Selector selector;
+  private final ByteBuffer input;
+  private final CharBuffer chars;
+  private final ByteBuffer output;
+  private final CharsetEncoder encoder;
+  private volatile boolean closed;
+  private volatile boolean serving;
+  private volatile int sessionCount;
+
+  /**
+   * Constructs a server that accepts sessions on the given bound channel.
+   * The channel is switched to non-blocking mode.
+   *
+   * @param server the channel to accept sessions on.
+   * @param games the factory of the game of each session, whose controllers
+   *     must be MarbleSolitaireControllerImpl.
+   * @throws IllegalArgumentException if the channel or the factory is null.
+   * @throws IOException if the channel cannot be watched by a selector.
+   */
+  public NioSolitaireServer(ServerSocketChannel server, GameFactory games)
+          throws IOException {
+    if (server == null || games == null) {
+      throw new IllegalArgumentException("Invalid server.");
+    }
+    this.server = server;
+    this.games = games;
+    this.selector = Selector.open();
+    this.input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.chars = CharBuffer.allocate(BUFFER_SIZE);
+    this.output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    server.configureBlocking(false);
+    server.register(selector, SelectionKey.OP_ACCEPT);
+  }
+
+  /**
+   * Return the port the server accepts sessions on.
+   *
+   * @return the local port of the channel.
+   * @throws IOException if the channel is closed.
+   */
+  public int getPort() throws IOException {
+    return ((InetSocketAddress) server.getLocalAddress()).getPort();
+  }
+
+  /**
+   * Play every session on the calling thread until the server is closed.
+   *
+   * @throws IOException if the selector or the server channel fails.
+   */
+  public void serve() throws IOException {
+    serving = true;
+    try {
+      while (!closed) {
+        selector.select(this::handle);
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Return the number of sessions currently connected.
+   *
+   * @return the number of open sessions.
+   */
+  public int getSessionCount() {
+    return sessionCount;
+  }
+
+  /**
+   * Stop accepting sessions and disconnect the open ones. A thread blocked
+   * in serve returns once it has let go of every connection.
+   *
+   * @throws IOException if closing the server channel fails.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    selector.wakeup();
+    if (!serving) {
+      release();
+    }
+  }
+
+  // helper method that handles one connection that is ready.
+  private void handle(SelectionKey key) {
+    if (!key.isValid()) {
+      return;
+    }
+    if (key.isAcceptable()) {
+      try {
+        accept();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return;
+    }
+    Session session = (Session) key.attachment();
+    try {
+      if (key.isReadable()) {
+        session.read();
+      }
+      if (key.isValid() && key.isWritable()) {
+        session.drain();
+      }
+    } catch (IOException | IllegalStateException e) {
+      session.close();
+    }
+  }
+
+  // helper method that accepts a waiting connection and starts its game.
+  private void accept() throws IOException {
+    SocketChannel channel = server.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    Session session = new Session(channel, channel.register(selector, SelectionKey.OP_READ));
+    sessionCount++;
+    try {
+      MarbleSolitaireController controller = games.newGame(NO_INPUT, session);
+      if (!(controller instanceof MarbleSolitaireControllerImpl)) {
+        throw new IllegalArgumentException("Unsupported controller.");
+      }
+      session.controller = (MarbleSolitaireControllerImpl) controller;
+      session.controller.start();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      session.close();
+    }
+  }
+
+  // helper method that closes every connection, the selector and the
+  // server channel.
+  private void release() throws IOException {
+    if (selector.isOpen()) {
+      for (SelectionKey key : selector.keys()) {
+        if (key.attachment() instanceof Session) {
+          ((Session) key.attachment()).close();
+        }
+      }
+      selector.close();
+    }
+    server.close();
+  }
+
+  /**
+   * This class represents one connection and its game. It is the Appendable
+   * the view of the game renders to, and it is only used by the thread of
+   * the server.
+   */
+  private final class Session implements Appendable, Flushable {
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final InputTokenizer tokens;
+    private final InputDecoder decoder;
+    private MarbleSolitaireControllerImpl controller;
+    // text rendered since the last flush
+    private final StringBuilder text;
+    // encoded output the connection could not take yet, or null if none
+    private ByteBuffer backlog;
+    private boolean done;
+    private boolean closed;
+
+    Session(SocketChannel channel, SelectionKey key) {
+      this.channel = channel;
+      this.key = key;
+      this.tokens = new InputTokenizer();
+      this.decoder = new InputDecoder();
+      this.text = new StringBuilder();
+      key.attach(this);
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      text.append(csq);
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      text.append(csq, start, end);
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      text.append(c);
+      return this;
+    }
+
+    /**
+     * Encode the text rendered since the last flush and write it to the
+     * connection, keeping what the connection cannot take for later.
+     *
+     * @throws IOException if writing to the connection fails.
+     */
+    @Override
+    public void flush() throws IOException {
+      if (text.length() == 0) {
+        return;
+      }
+      CharBuffer source = CharBuffer.wrap(text);
+      encoder.reset();
+      boolean flushed = false;
+      while (!flushed) {
+        output.clear();
+        CoderResult result = encoder.encode(source, output, true);
+        if (result.isUnderflow()) {
+          flushed = encoder.flush(output).isUnderflow();
+        }
+        output.flip();
+        if (backlog == null) {
+          channel.write(output);
+        }
+        if (output.hasRemaining()) {
+          keep(output);
+        }
+      }
+      // an idle session keeps no room for text it may never render
+      text.setLength(0);
+      text.trimToSize();
+    }
+
+    // helper method that reads what the connection has and plays every
+    // complete token of it.
+    void read() throws IOException {
+      decoder.begin(input);
+      if (channel.read(input) < 0) {
+        InputTokenizer.Kind last = tokens.finish();
+        if (last.equals(InputTokenizer.Kind.End) || controller.step(last, tokens.value())) {
+          try {
+            controller.endOfInput();
+          } catch (IllegalStateException e) {
+            // the input ended before the game
+          }
+        }
+        finish();
+        return;
+      }
+      decoder.decode(input, chars);
+      while (chars.hasRemaining() && !done) {
+        InputTokenizer.Kind kind = tokens.feed(chars.get());
+        if (kind != null && !controller.step(kind, tokens.value())) {
+          finish();
+        }
+      }
+    }
+
+    // helper method that writes as much of the kept output as the
+    // connection takes, and closes a finished session once all is written.
+    void drain() throws IOException {
+      if (backlog == null) {
+        return;
+      }
+      while (backlog.hasRemaining()) {
+        output.clear();
+        int limit = backlog.limit();
+        backlog.limit(Math.min(limit, backlog.position() + output.remaining()));
+        output.put(backlog);
+        backlog.limit(limit);
+        output.flip();
+        channel.write(output);
+        if (output.hasRemaining()) {
+          backlog.position(backlog.position() - output.remaining());
+          return;
+        }
+      }
+      backlog = null;
+      if (done) {
+        close();
+      } else {
+        key.interestOps(SelectionKey.OP_READ);
+      }
+    }
+
+    // helper method that keeps the remaining bytes of the given buffer to
+    // be written once the connection can take them.
+    private void keep(ByteBuffer bytes) {
+      if (backlog == null) {
+        backlog = ByteBuffer.allocate(Math.max(bytes.remaining(), 256));
+        backlog.flip();
+        key.interestOps(SelectionKey.OP_WRITE);
+      }
+      if (backlog.capacity() - backlog.limit() < bytes.remaining()) {
+        ByteBuffer larger = ByteBuffer.allocate(
+                Math.max(2 * backlog.capacity(), backlog.remaining() + bytes.remaining()));
+        larger.put(backlog);
+        larger.flip();
+        backlog = larger;
+      }
+      int position = backlog.position();
+      backlog.position(backlog.limit());
+      backlog.limit(backlog.capacity());
+      backlog.put(bytes);
+      backlog.limit(backlog.position());
+      backlog.position(position);
+    }
+
+    // helper method that ends the game of the session, closing it now or
+    // once its output is written.
+    private void finish() {
+      done = true;
+      if (backlog == null) {
+        close();
+      } else {
+        key.interestOps(SelectionKey.OP_WRITE);
+      }
+    }
+
+    // helper method that disconnects the session.
+    void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      done = true;
+      sessionCount--;
+      key.cancel();
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // nothing left to release
+      }
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package game.marblesolitaire.server;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import game.marblesolitaire.controller.MarbleSolitaireController;
+
+/**
+ * This class represents a server that plays many games of marble solitaire
+ * at once, one per socket connection. Each session gets a new game from the
+ * factory, bound to the streams of its socket, and runs the blocking loop of
+ * its controller on a thread of its own, so all sessions share one JVM. On a
+ * Java runtime with virtual threads every session runs on a virtual thread,
+ * otherwise on a platform thread of a cached pool. The output of a session
+ * is collected by a buffered writer in front of its socket and written out
+ * when the view is flushed, so views need no buffer of their own.
+ */
+public class SolitaireServer implements Closeable {
+  private final ServerSocket server;
+  private final GameFactory games;
+  private final ExecutorService sessions;
+  private final Set<Socket> open;
+
+  /**
+   * Constructs a server that accepts sessions on the given socket and runs
+   * each on a thread of its own.
+   *
+   * @param server the socket to accept sessions on.
+   * @param games the factory of the game of each session.
+   * @throws IllegalArgumentException if the socket or the factory is null.
+   */
+  public SolitaireServer(ServerSocket server, GameFactory games) {
+    this(server, games, newSessionExecutor());
+  }
+
+  /**
+   * Constructs a server that accepts sessions on the given socket and runs
+   * them on the given executor, which is shut down when the server closes.
+   *
+   * @param server the socket to accept sessions on.
+   * @param games the factory of the game of each session.
+   * @param sessions the executor running the sessions.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public SolitaireServer(ServerSocket server, GameFactory games, ExecutorService sessions) {
+    if (server == null || games == null || sessions == null) {
+      throw new IllegalArgumentException("Invalid server.");
+    }
+    this.server = server;
+    this.games = games;
+    this.sessions = sessions;
+    this.open = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Return an executor that starts a virtual thread per task if the Java
+   * runtime has them, or a cached pool of daemon threads otherwise.
+   *
+   * @return the new executor.
+   */
+  public static ExecutorService newSessionExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+              .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "solitaire-session");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Accept sessions until the server is closed. Each session is started on
+   * its own thread and this method does not wait for it.
+   *
+   * @throws IOException if accepting a connection fails while the server is open.
+   */
+  public void serve() throws IOException {
+    while (!server.isClosed()) {
+      Socket socket;
+      try {
+        socket = server.accept();
+      } catch (IOException e) {
+        if (server.isClosed()) {
+          return;
+        }
+        throw e;
+      }
+      open.add(socket);
+      sessions.execute(() -> runSession(socket));
+    }
+  }
+
+  /**
+   * Return the number of sessions currently connected.
+   *
+   * @return the number of open sessions.
+   */
+  public int getSessionCount() {
+    return open.size();
+  }
+
+  /**
+   * Stop accepting sessions and disconnect the open ones.
+   *
+   * @throws IOException if closing the server socket fails.
+   */
+  @Override
+  public void close() throws IOException {
+    server.close();
+    sessions.shutdown();
+    for (Socket socket : open) {
+      closeQuietly(socket);
+    }
+  }
+
+  // helper method that plays one game over the given socket and closes it
+  // when the game ends, the input ends or the output fails.
+  private void runSession(Socket socket) {
+    try {
+      Readable in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+      Writer out = new BufferedWriter(
+              new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+      MarbleSolitaireController controller = games.newGame(in, out);
+      try {
+        controller.playGame();
+      } catch (IllegalStateException e) {
+        // the player left or could not be written to
+      }
+      out.flush();
+    } catch (IOException e) {
+      // the streams of the socket could not be opened or its last output was lost
+    } finally {
+      open.remove(socket);
+      closeQuietly(socket);
+    }
+  }
+
+  // helper method that closes a socket, ignoring a failure to do so.
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // nothing left to release
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package game.marblesolitaire.solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+
+/**
+ * This class represents one depth-first search over the jumps of a bitboard
+ * position. Each jump is made by flipping its bits and taken back by flipping
+ * them again, and every position whose subtree fails is recorded in the given
+ * transposition table, as the representative of its symmetry class when a
+ * canonicalizer is given. A jump is skipped if it leaves the value of a
+ * pagoda function below the weight of the target, since no later move could
+ * bring the last marble there. Once few enough marbles are left, an endgame
+ * tablebase tells at once whether the position can still be solved, and
+ * only the positions it holds are searched further. Each solver of this
+ * package runs one search, or one per subtree when searching in parallel.
+ */
+class BacktrackingSearch {
+  private final BitboardLayout layout;
+  private final int target;
+  private final TranspositionTable failed;
+  private final SymmetryCanonicalizer canonicalizer;
+  private final AtomicBoolean stop;
+  private final PagodaTracker pagodas;
+  private final EndgameTablebase endgame;
+  private final long[] position;
+  private final int[] path;
+  private final long[][] keys;
+  private int score;
+
+  /**
+   * Constructs a search from the given position. The position and the path
+   * arrays are used in place.
+   *
+   * @param layout the layout of the board.
+   * @param target the bit index the last marble must end on, or -1 for anywhere.
+   * @param failed the table of positions known to have no solution.
+   * @param canonicalizer the canonicalizer of the table keys, or null to
+   *     store positions as they are.
+   * @param stop a flag that aborts the search once set, or null.
+   * @param pagodas the tracker of the pagoda functions that prune the
+   *     search, at the given position and used in place.
+   * @param endgame the tablebase of the board and target, or null.
+   * @param position the position to search from.
+   * @param score the number of marbles of the position.
+   * @param path the jumps made so far, with room for a whole solution.
+   */
+  BacktrackingSearch(BitboardLayout layout, int target, TranspositionTable failed,
+                     SymmetryCanonicalizer canonicalizer, AtomicBoolean stop,
+                     PagodaTracker pagodas, EndgameTablebase endgame,
+                     long[] position, int score, int[] path) {
+    this.layout = layout;
+    this.target = target;
+    this.failed = failed;
+    this.canonicalizer = canonicalizer;
+    this.stop = stop;
+    this.pagodas = pagodas;
+    this.endgame = endgame;
+    this.position = position;
+    this.score = score;
+    this.path = path;
+    this.keys = new long[canonicalizer == null ? 0 : path.length + 1][position.length];
+  }
+
+  /**
+   * Return the jumps of the path, which hold a solution after a search
+   * succeeded.
+   *
+   * @return the jumps of the path.
+   */
+  int[] getPath() {
+    return path;
+  }
+
+  /**
+   * Determine if the current position is a solved end position.
+   *
+   * @return true if one marble is left on an allowed slot, false otherwise.
+   */
+  boolean isSolved() {
+    return score == 1 && (target < 0 || BitboardLayout.isSet(position, target));
+  }
+
+  /**
+   * Search the moves from the current position, with depth moves already
+   * made. On success the position is left solved and the path holds the
+   * jumps made, otherwise the position is left unchanged. A position is only
+   * recorded as failed if its whole subtree was searched.
+   *
+   * @param depth the number of moves already made.
+   * @return true if a solution was found, false otherwise.
+   */
+  boolean search(int depth) {
+    if (score == 1) {
+      return isSolved();
+    }
+    if (endgame != null && score <= endgame.getMaxMarbles() && !endgame.contains(position)) {
+      return false;
+    }
+    long[] key = keyOf(depth);
+    if (isStopped() || failed.contains(key)) {
+      return false;
+    }
+    for (int j = 0; j < layout.getJumpCount(); j++) {
+      if (layout.canJump(position, j) && pagodas.canReachTarget(j)) {
+        layout.flipJump(position, j);
+        pagodas.makeJump(j);
+        score--;
+        path[depth] = j;
+        if (search(depth + 1)) {
+          return true;
+        }
+        layout.flipJump(position, j);
+        pagodas.undoJump(j);
+        score++;
+      }
+    }
+    if (!isStopped()) {
+      failed.add(key);
+    }
+    return false;
+  }
+
+  // helper method that returns the table key of the current position, using
+  // the scratch array of the given depth.
+  private long[] keyOf(int depth) {
+    if (canonicalizer == null) {
+      return position;
+    }
+    canonicalizer.canonicalize(position, keys[depth]);
+    return keys[depth];
+  }
+
+  // helper method to see if another search asked this one to stop.
+  private boolean isStopped() {
+    return stop != null && stop.get();
+  }
+}
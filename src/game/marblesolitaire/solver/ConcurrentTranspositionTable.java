@@ -0,0 +1,84 @@
+package game.marblesolitaire.solver;
+
+/**
+ * This class represents a transposition table that can be shared by many
+ * threads. Positions are spread over a fixed number of stripes by their hash,
+ * and each stripe is an open addressing table guarded by its own lock, so
+ * threads only wait for each other when they touch the same stripe.
+ */
+public class ConcurrentTranspositionTable implements TranspositionTable {
+  // odd constant that mixes the hash again before the stripe is taken
+  private static final long STRIPE_MIX = 0xC2B2AE3D27D4EB4FL;
+
+  private final int width;
+  private final HashTranspositionTable[] stripes;
+  // shift that keeps the bits of the stripe at the top of the mixed hash
+  private final int stripeShift;
+
+  /**
+   * Constructs an empty table for positions of the given number of words,
+   * with enough stripes for the processors of this machine.
+   *
+   * @param width the number of words of a position.
+   * @throws IllegalArgumentException if the width is not positive.
+   */
+  public ConcurrentTranspositionTable(int width) {
+    this(width, 4 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs an empty table for positions of the given number of words,
+   * with at least the given number of stripes.
+   *
+   * @param width the number of words of a position.
+   * @param stripes the smallest number of independently locked stripes.
+   * @throws IllegalArgumentException if the width or the stripes are not positive.
+   */
+  public ConcurrentTranspositionTable(int width, int stripes) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("Invalid number of stripes.");
+    }
+    this.width = width;
+    this.stripes = new HashTranspositionTable[Integer.highestOneBit(2 * stripes - 1)];
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new HashTranspositionTable(width);
+    }
+    this.stripeShift = 64 - Integer.numberOfTrailingZeros(this.stripes.length);
+  }
+
+  @Override
+  public boolean contains(long[] position) {
+    HashTranspositionTable stripe = stripeOf(position);
+    synchronized (stripe) {
+      return stripe.contains(position);
+    }
+  }
+
+  @Override
+  public boolean add(long[] position) {
+    HashTranspositionTable stripe = stripeOf(position);
+    synchronized (stripe) {
+      return stripe.add(position);
+    }
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (HashTranspositionTable stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  // helper method that picks the stripe of a position from the top bits of
+  // its 64-bit hash mixed once more. A stripe indexes its slots with the low
+  // bits of the hash folded to an int, so any bits of that int could overlap
+  // the slot bits of a large stripe and crowd its positions together.
+  private HashTranspositionTable stripeOf(long[] position) {
+    long mixed = HashTranspositionTable.longHash(position, 0, width) * STRIPE_MIX;
+    return stripes[(int) (mixed >>> stripeShift) & (stripes.length - 1)];
+  }
+}
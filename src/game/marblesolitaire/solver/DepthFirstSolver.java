@@ -0,0 +1,159 @@
+package game.marblesolitaire.solver;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+
+/**
+ * This class represents a depth-first solver of the marble solitaire game.
+ * It searches the moves of a bitboard copy of the given model, taking each
+ * move back when its subtree fails, and records every position whose subtree
+ * failed in a transposition table so that the same position reached by a
+ * different order of moves, or any rotation or reflection of it that keeps
+ * the target in place, is not searched again. Whether a position can be
+ * solved does not depend on where the search started, so this holds for
+ * any start. With a target, moves that the pagoda functions of the board
+ * rule out are not searched at all. It works for any board the bitboard
+ * model supports: English, European and Triangular.
+ */
+public class DepthFirstSolver implements MarbleSolitaireSolver {
+  private final BitboardLayout layout;
+  private final TranspositionTable failed;
+  private final BacktrackingSearch search;
+  private final int moveCount;
+  private Boolean solvable;
+
+  /**
+   * Constructs a solver that looks for a single marble anywhere on the
+   * board of the given model. The model itself is never changed.
+   *
+   * @param model the model to solve.
+   * @throws IllegalArgumentException if the model is null or not supported
+   *     by the bitboard model.
+   */
+  public DepthFirstSolver(MarbleSolitaireModel model) {
+    this(new BitboardSolitaireModel(model), true, 0, 0, null, null);
+  }
+
+  /**
+   * Constructs a solver that looks for a single marble left at the given
+   * target slot of the board of the given model. The model itself is never
+   * changed.
+   *
+   * @param model the model to solve.
+   * @param targetRow the row of the slot the last marble must end on.
+   * @param targetCol the column of the slot the last marble must end on.
+   * @throws IllegalArgumentException if the model is null or not supported
+   *     by the bitboard model, or the target is not a valid slot.
+   */
+  public DepthFirstSolver(MarbleSolitaireModel model, int targetRow, int targetCol) {
+    this(new BitboardSolitaireModel(model), false, targetRow, targetCol, null, null);
+  }
+
+  /**
+   * Constructs a solver that looks for a single marble left at the given
+   * target slot of the board of the given model, and that stops searching
+   * a branch as soon as it has few enough marbles for the given tablebase
+   * to decide it. The model itself is never changed.
+   *
+   * @param model the model to solve.
+   * @param targetRow the row of the slot the last marble must end on.
+   * @param targetCol the column of the slot the last marble must end on.
+   * @param endgame the tablebase built for the board and the target.
+   * @throws IllegalArgumentException if the model is null or not supported
+   *     by the bitboard model, the target is not a valid slot, or the
+   *     tablebase is null or built for another board or target.
+   */
+  public DepthFirstSolver(MarbleSolitaireModel model, int targetRow, int targetCol,
+                          EndgameTablebase endgame) {
+    this(new BitboardSolitaireModel(model), false, targetRow, targetCol, null, endgame);
+    if (endgame == null) {
+      throw new IllegalArgumentException("Invalid tablebase.");
+    }
+  }
+
+  /**
+   * Constructs a solver that looks for a single marble left at the given
+   * target slot of the board of the given model, recording the positions
+   * that failed in the given table, such as a MappedTranspositionTable for
+   * searches too large for the heap. The model itself is never changed.
+   *
+   * @param model the model to solve.
+   * @param targetRow the row of the slot the last marble must end on.
+   * @param targetCol the column of the slot the last marble must end on.
+   * @param failed an empty table for positions of the word count of the
+   *     board.
+   * @param endgame the tablebase built for the board and the target, or
+   *     null for none.
+   * @throws IllegalArgumentException if the model or the table is null, the
+   *     model is not supported by the bitboard model, the target is not a
+   *     valid slot, or the tablebase is built for another board or target.
+   */
+  public DepthFirstSolver(MarbleSolitaireModel model, int targetRow, int targetCol,
+                          TranspositionTable failed, EndgameTablebase endgame) {
+    this(new BitboardSolitaireModel(model), false, targetRow, targetCol,
+            requireTable(failed), endgame);
+  }
+
+  // helper constructor that starts the search from the bitboard copy, with
+  // the last marble allowed anywhere or only on the given target slot, the
+  // given table or a new one on the heap, and a tablebase for the endgame
+  // or none.
+  private DepthFirstSolver(BitboardSolitaireModel start, boolean anywhere,
+                           int targetRow, int targetCol, TranspositionTable failed,
+                           EndgameTablebase endgame) {
+    this.layout = start.getLayout();
+    int target = anywhere ? -1 : layout.getCell(targetRow, targetCol);
+    if (!anywhere && target < 0) {
+      throw new IllegalArgumentException("Invalid target position ("
+              + targetRow + ", " + targetCol + ")");
+    }
+    if (endgame != null && !endgame.covers(layout, target)) {
+      throw new IllegalArgumentException("Invalid tablebase.");
+    }
+    this.failed = failed == null ? new HashTranspositionTable(layout.getWordCount()) : failed;
+    this.moveCount = Math.max(start.getScore() - 1, 0);
+    long[] position = start.getPosition();
+    this.search = new BacktrackingSearch(layout, target, this.failed,
+            new SymmetryCanonicalizer(layout, target), null,
+            new PagodaTracker(PagodaLibrary.forTarget(layout, target), target, position),
+            endgame, position, start.getScore(), new int[moveCount]);
+  }
+
+  // helper method that checks the table given to a constructor.
+  private static TranspositionTable requireTable(TranspositionTable failed) {
+    if (failed == null) {
+      throw new IllegalArgumentException("Null table.");
+    }
+    return failed;
+  }
+
+  @Override
+  public boolean isSolvable() {
+    if (solvable == null) {
+      solvable = search.search(0);
+    }
+    return solvable;
+  }
+
+  @Override
+  public int[] solve() throws IllegalStateException {
+    if (!isSolvable()) {
+      throw new IllegalStateException("No solution.");
+    }
+    int[] moves = new int[moveCount];
+    for (int i = 0; i < moves.length; i++) {
+      moves[i] = layout.getJumpMove(search.getPath()[i]);
+    }
+    return moves;
+  }
+
+  /**
+   * Return the number of positions found to have no solution so far.
+   *
+   * @return the number of failed positions in the transposition table.
+   */
+  public int getFailedCount() {
+    return failed.size();
+  }
+}
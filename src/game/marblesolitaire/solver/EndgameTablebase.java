@@ -0,0 +1,263 @@
+package game.marblesolitaire.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+
+/**
+ * This class represents an endgame tablebase: every position of up to a
+ * given number of marbles that can still be taken down to a single marble,
+ * on a given target slot or anywhere. It is built backwards, starting from
+ * the single marble positions and taking jumps back one marble at a time,
+ * so each position found is solvable by construction. The positions are
+ * kept as one sorted array of bitboards and probed by binary search, which
+ * limits the tablebase to boards of at most 64 slots such as the 33 and 37
+ * slot English and European boards. A tablebase can be saved to a file and
+ * loaded back, the file holding the board it was built for and the sorted
+ * bitboards, or the file can be mapped into memory so that the operating
+ * system pages in only the parts that are probed.
+ */
+public class EndgameTablebase {
+  // first four bytes of a tablebase file
+  private static final int MAGIC = 0x50474442;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final String boardType;
+  private final int arm;
+  private final int target;
+  private final int maxMarbles;
+  private final LongBuffer positions;
+
+  // helper constructor that takes the sorted positions as they are.
+  private EndgameTablebase(String boardType, int arm, int target, int maxMarbles,
+                           LongBuffer positions) {
+    this.boardType = boardType;
+    this.arm = arm;
+    this.target = target;
+    this.maxMarbles = maxMarbles;
+    this.positions = positions;
+  }
+
+  /**
+   * Build the tablebase of every solvable position of the given board with
+   * up to the given number of marbles.
+   *
+   * @param layout the layout of the board.
+   * @param target the bit index of the slot the last marble must end on, or
+   *     -1 for anywhere.
+   * @param maxMarbles the largest number of marbles of a position.
+   * @return the new tablebase.
+   * @throws IllegalArgumentException if the layout is null or has more than
+   *     64 slots, the target is not a slot, or the number of marbles is not
+   *     positive.
+   */
+  public static EndgameTablebase build(BitboardLayout layout, int target, int maxMarbles) {
+    if (layout == null || layout.getWordCount() != 1) {
+      throw new IllegalArgumentException("Unsupported board.");
+    }
+    if (target < -1 || target >= layout.getCellCount()) {
+      throw new IllegalArgumentException("Invalid target.");
+    }
+    if (maxMarbles < 1) {
+      throw new IllegalArgumentException("Invalid number of marbles.");
+    }
+    long[] jumpBits = new long[layout.getJumpCount()];
+    for (int j = 0; j < jumpBits.length; j++) {
+      jumpBits[j] = 1L << layout.getJumpFrom(j) | 1L << layout.getJumpOver(j)
+              | 1L << layout.getJumpTo(j);
+    }
+
+    long[] level;
+    if (target < 0) {
+      level = new long[layout.getCellCount()];
+      for (int cell = 0; cell < level.length; cell++) {
+        level[cell] = 1L << cell;
+      }
+    } else {
+      level = new long[] {1L << target};
+    }
+    long[] all = level;
+    int total = level.length;
+    for (int marbles = 2; marbles <= maxMarbles && level.length > 0; marbles++) {
+      level = unjump(layout, jumpBits, level);
+      if (total + level.length > all.length) {
+        all = Arrays.copyOf(all, Math.max(2 * all.length, total + level.length));
+      }
+      System.arraycopy(level, 0, all, total, level.length);
+      total += level.length;
+    }
+    long[] positions = Arrays.copyOf(all, total);
+    Arrays.sort(positions);
+    return new EndgameTablebase(layout.getBoardType(), layout.getArm(), target,
+            maxMarbles, LongBuffer.wrap(positions));
+  }
+
+  /**
+   * Load a tablebase saved by save onto the heap.
+   *
+   * @param file the file to load.
+   * @return the loaded tablebase.
+   * @throws IOException if the file cannot be read or is not a tablebase.
+   */
+  public static EndgameTablebase load(Path file) throws IOException {
+    EndgameTablebase mapped = map(file);
+    long[] positions = new long[mapped.size()];
+    mapped.positions.duplicate().get(positions);
+    for (int i = 1; i < positions.length; i++) {
+      if (positions[i] <= positions[i - 1]) {
+        throw new IOException("Not a tablebase file.");
+      }
+    }
+    return new EndgameTablebase(mapped.boardType, mapped.arm, mapped.target,
+            mapped.maxMarbles, LongBuffer.wrap(positions));
+  }
+
+  /**
+   * Map a tablebase saved by save into memory instead of loading it onto
+   * the heap. The positions are not checked, and stay on disk until they
+   * are probed.
+   *
+   * @param file the file to map.
+   * @return the mapped tablebase.
+   * @throws IOException if the file cannot be mapped or is not a tablebase.
+   */
+  public static EndgameTablebase map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+         DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a tablebase file.");
+      }
+      String boardType = in.readUTF();
+      int arm = in.readInt();
+      int target = in.readInt();
+      int maxMarbles = in.readInt();
+      int count = in.readInt();
+      // the magic number, the length and bytes of the board type, and four ints
+      long start = 4 + 2 + boardType.getBytes(StandardCharsets.UTF_8).length + 4 * 4;
+      if (count < 0 || start + 8L * count != channel.size()) {
+        throw new IOException("Not a tablebase file.");
+      }
+      if (8L * count > Integer.MAX_VALUE) {
+        throw new IOException("Tablebase too large to map.");
+      }
+      LongBuffer positions = channel.map(FileChannel.MapMode.READ_ONLY, start, 8L * count)
+              .asLongBuffer();
+      return new EndgameTablebase(boardType, arm, target, maxMarbles, positions);
+    }
+  }
+
+  /**
+   * Save this tablebase to the given file, replacing its contents.
+   *
+   * @param file the file to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public void save(Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+      out.writeInt(MAGIC);
+      out.writeUTF(boardType);
+      out.writeInt(arm);
+      out.writeInt(target);
+      out.writeInt(maxMarbles);
+      out.writeInt(positions.limit());
+      for (int i = 0; i < positions.limit(); i++) {
+        out.writeLong(positions.get(i));
+      }
+    }
+  }
+
+  /**
+   * Determine if this tablebase was built for the given board and target.
+   *
+   * @param layout the layout of the board.
+   * @param target the bit index of the target slot, or -1 for anywhere.
+   * @return true if the board type, the arm and the target match, false
+   *     otherwise.
+   */
+  public boolean covers(BitboardLayout layout, int target) {
+    return layout.getBoardType().equals(boardType) && layout.getArm() == arm
+            && this.target == target;
+  }
+
+  /**
+   * Return the largest number of marbles of the positions of this tablebase.
+   *
+   * @return the largest number of marbles.
+   */
+  public int getMaxMarbles() {
+    return maxMarbles;
+  }
+
+  /**
+   * Return the number of positions in this tablebase.
+   *
+   * @return the number of solvable positions.
+   */
+  public int size() {
+    return positions.limit();
+  }
+
+  /**
+   * Determine if the given position, of at most the largest number of
+   * marbles of this tablebase, can be taken down to a single marble.
+   *
+   * @param position the position as words of marble bits.
+   * @return true if the position is solvable, false otherwise.
+   */
+  public boolean contains(long[] position) {
+    long key = position[0];
+    int low = 0;
+    int high = positions.limit() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long value = positions.get(mid);
+      if (value < key) {
+        low = mid + 1;
+      } else if (value > key) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // helper method that returns the sorted distinct positions with one more
+  // marble from which a jump leads to one of the given positions.
+  private static long[] unjump(BitboardLayout layout, long[] jumpBits, long[] level) {
+    long[] next = new long[Math.max(level.length, 16)];
+    int count = 0;
+    for (long position : level) {
+      for (int j = 0; j < jumpBits.length; j++) {
+        long fromAndOver = 1L << layout.getJumpFrom(j) | 1L << layout.getJumpOver(j);
+        if ((position & fromAndOver) == 0 && (position & 1L << layout.getJumpTo(j)) != 0) {
+          if (count == next.length) {
+            next = Arrays.copyOf(next, 2 * next.length);
+          }
+          next[count++] = position ^ jumpBits[j];
+        }
+      }
+    }
+    Arrays.sort(next, 0, count);
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || next[i] != next[distinct - 1]) {
+        next[distinct++] = next[i];
+      }
+    }
+    return Arrays.copyOf(next, distinct);
+  }
+}
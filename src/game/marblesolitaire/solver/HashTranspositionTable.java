@@ -0,0 +1,231 @@
+package game.marblesolitaire.solver;
+
+/**
+ * This class represents a transposition table that stores positions in one
+ * flat array of words with open addressing, so no object is allocated per
+ * position. The table doubles its capacity when it becomes half full.
+ * Classes of this package may give every position a fixed number of value
+ * words, stored right after the position in the same array, so a value moves
+ * with its position when the table grows.
+ */
+public class HashTranspositionTable implements TranspositionTable {
+  private static final int INITIAL_CAPACITY = 1 << 10;
+
+  private final int width;
+  // number of words of a slot, the position followed by its values
+  private final int stride;
+  private long[] keys;
+  private int mask;
+  private int size;
+  // the position without marbles marks free slots, so it is kept aside
+  private boolean hasEmptyPosition;
+
+  /**
+   * Constructs an empty table for positions of the given number of words.
+   *
+   * @param width the number of words of a position.
+   * @throws IllegalArgumentException if the width is not positive.
+   */
+  public HashTranspositionTable(int width) {
+    this(width, 0);
+  }
+
+  /**
+   * Constructs an empty table for positions of the given number of words,
+   * each with the given number of value words, all zero when it is added.
+   *
+   * @param width the number of words of a position.
+   * @param valueWidth the number of value words of a position.
+   * @throws IllegalArgumentException if the width is not positive or the
+   *     value width is negative.
+   */
+  HashTranspositionTable(int width, int valueWidth) {
+    if (width < 1 || valueWidth < 0) {
+      throw new IllegalArgumentException("Invalid position width.");
+    }
+    this.width = width;
+    this.stride = width + valueWidth;
+    this.keys = new long[INITIAL_CAPACITY * stride];
+    this.mask = INITIAL_CAPACITY - 1;
+  }
+
+  @Override
+  public boolean contains(long[] position) {
+    if (isEmptyPosition(position)) {
+      return hasEmptyPosition;
+    }
+    return !isFree(keys, findSlot(keys, mask, position));
+  }
+
+  @Override
+  public boolean add(long[] position) {
+    if (isEmptyPosition(position)) {
+      boolean added = !hasEmptyPosition;
+      hasEmptyPosition = true;
+      size += added ? 1 : 0;
+      return added;
+    }
+    if (slotOf(position) >= 0) {
+      return false;
+    }
+    put(position);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Return the slot holding the given position, which may change when the
+   * table grows.
+   *
+   * @param position the position to look for.
+   * @return the slot of the position, or -1 if it is not in the table or
+   *     has no marbles, as that position is kept aside.
+   */
+  int slotOf(long[] position) {
+    if (isEmptyPosition(position)) {
+      return -1;
+    }
+    int slot = findSlot(keys, mask, position);
+    return isFree(keys, slot) ? -1 : slot;
+  }
+
+  /**
+   * Add the given position if it is not in the table yet and return its
+   * slot, which stays valid until the next position is added.
+   *
+   * @param position the position to add, which must have a marble.
+   * @return the slot of the position.
+   * @throws IllegalArgumentException if the position has no marbles, as
+   *     that position has no slot.
+   */
+  int put(long[] position) {
+    if (isEmptyPosition(position)) {
+      throw new IllegalArgumentException("Empty position.");
+    }
+    int slot = findSlot(keys, mask, position);
+    if (!isFree(keys, slot)) {
+      return slot;
+    }
+    if (2 * (size + 1) > mask + 1) {
+      grow();
+      slot = findSlot(keys, mask, position);
+    }
+    System.arraycopy(position, 0, keys, slot * stride, width);
+    size++;
+    return slot;
+  }
+
+  /**
+   * Return one value word of the position in the given slot.
+   *
+   * @param slot the slot of the position.
+   * @param index the index of the value word.
+   * @return the value word.
+   */
+  long getValue(int slot, int index) {
+    return keys[slot * stride + width + index];
+  }
+
+  /**
+   * Set one value word of the position in the given slot.
+   *
+   * @param slot the slot of the position.
+   * @param index the index of the value word.
+   * @param value the new value word.
+   */
+  void setValue(int slot, int index, long value) {
+    keys[slot * stride + width + index] = value;
+  }
+
+  // helper method that returns the slot holding the given position, or the
+  // free slot where it would be stored.
+  private int findSlot(long[] table, int tableMask, long[] position) {
+    int slot = hash(position, 0, width) & tableMask;
+    while (!isFree(table, slot) && !matches(table, slot, position)) {
+      slot = (slot + 1) & tableMask;
+    }
+    return slot;
+  }
+
+  // helper method to double the capacity and put every position back with
+  // its values.
+  private void grow() {
+    int newMask = 2 * (mask + 1) - 1;
+    long[] newKeys = new long[(newMask + 1) * stride];
+    long[] position = new long[width];
+    for (int slot = 0; slot <= mask; slot++) {
+      if (!isFree(keys, slot)) {
+        System.arraycopy(keys, slot * stride, position, 0, width);
+        int to = findSlot(newKeys, newMask, position);
+        System.arraycopy(keys, slot * stride, newKeys, to * stride, stride);
+      }
+    }
+    keys = newKeys;
+    mask = newMask;
+  }
+
+  // helper method to see if a slot of the table holds no position.
+  private boolean isFree(long[] table, int slot) {
+    for (int i = slot * stride; i < slot * stride + width; i++) {
+      if (table[i] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // helper method to see if a slot of the table holds the given position.
+  private boolean matches(long[] table, int slot, long[] position) {
+    for (int i = 0; i < width; i++) {
+      if (table[slot * stride + i] != position[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // helper method to see if the given position has no marbles.
+  private boolean isEmptyPosition(long[] position) {
+    for (long word : position) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return a well mixed hash of the given words.
+   *
+   * @param words the array holding the words.
+   * @param from the index of the first word.
+   * @param width the number of words.
+   * @return the hash of the words.
+   */
+  static int hash(long[] words, int from, int width) {
+    long h = longHash(words, from, width);
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * Return a well mixed 64-bit hash of the given words, for tables with more
+   * slots than an int can index.
+   *
+   * @param words the array holding the words.
+   * @param from the index of the first word.
+   * @param width the number of words.
+   * @return the hash of the words.
+   */
+  static long longHash(long[] words, int from, int width) {
+    long h = 0;
+    for (int i = from; i < from + width; i++) {
+      h = (h ^ words[i]) * 0x9E3779B97F4A7C15L;
+      h ^= h >>> 29;
+    }
+    return h;
+  }
+}
@@ -0,0 +1,277 @@
+package game.marblesolitaire.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+
+/**
+ * This class counts every position reachable from the board of a model,
+ * layer by layer. Every move removes one marble, so the positions with the
+ * same number of marbles form a layer that is only reached from the layer
+ * before it. The explorer makes every move from each position of the
+ * current layer into a buffer of the given size. A full buffer is sorted,
+ * rid of duplicates and written to the disk as a sorted run, and the runs
+ * of a layer are merged into its file, dropping the duplicates between
+ * runs. A layer that fits in the buffer stays in memory, so at most the
+ * current and the next layer are held at once whatever the size of the
+ * state space. Positions are single words, which covers boards of up to 64
+ * slots such as the 33 and 37 slot English and European boards.
+ */
+public class LayeredExplorer {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int MIN_BUDGET = 16;
+
+  private final BitboardLayout layout;
+  private final long start;
+  private final int startScore;
+  private final Path spillDirectory;
+  private final long[] buffer;
+  private final long[] jumpBits;
+  private final long[] fromAndOver;
+  private final long[] to;
+  private int count;
+  private final List<Path> runs;
+  private int spillCount;
+
+  /**
+   * Constructs an explorer of the positions reachable from the board of the
+   * given model. The model itself is never changed.
+   *
+   * @param model the model whose board is explored.
+   * @param spillDirectory the directory of the files of the sorted runs.
+   * @param budget the number of positions kept in memory before they are
+   *     written to the disk, at least 16.
+   * @throws IllegalArgumentException if the model or the directory is null,
+   *     the board has more than 64 slots or is not supported by the bitboard
+   *     model, or the budget is too small.
+   */
+  public LayeredExplorer(MarbleSolitaireModel model, Path spillDirectory, int budget) {
+    if (spillDirectory == null) {
+      throw new IllegalArgumentException("Null directory.");
+    }
+    if (budget < MIN_BUDGET) {
+      throw new IllegalArgumentException("Invalid memory budget.");
+    }
+    BitboardSolitaireModel bitboard = new BitboardSolitaireModel(model);
+    this.layout = bitboard.getLayout();
+    if (layout.getWordCount() != 1) {
+      throw new IllegalArgumentException("Unsupported board.");
+    }
+    this.start = bitboard.getPosition()[0];
+    this.startScore = bitboard.getScore();
+    this.spillDirectory = spillDirectory;
+    this.buffer = new long[budget];
+    this.jumpBits = new long[layout.getJumpCount()];
+    this.fromAndOver = new long[jumpBits.length];
+    this.to = new long[jumpBits.length];
+    for (int j = 0; j < jumpBits.length; j++) {
+      fromAndOver[j] = 1L << layout.getJumpFrom(j) | 1L << layout.getJumpOver(j);
+      to[j] = 1L << layout.getJumpTo(j);
+      jumpBits[j] = fromAndOver[j] | to[j];
+    }
+    this.runs = new ArrayList<>();
+  }
+
+  /**
+   * Explore every position reachable from the board and count them by
+   * their number of marbles.
+   *
+   * @return the number of reachable positions with each number of marbles,
+   *     by number of marbles from 0 to the number of marbles of the board.
+   * @throws IOException if a run or a layer cannot be written or read.
+   */
+  public long[] explore() throws IOException {
+    long[] counts = new long[startScore + 1];
+    long[] layer = {start};
+    int layerSize = 1;
+    Path layerFile = null;
+    counts[startScore] = 1;
+    for (int score = startScore; score > 1; score--) {
+      count = 0;
+      if (layerFile == null) {
+        for (int i = 0; i < layerSize; i++) {
+          expand(layer[i]);
+        }
+      } else {
+        try (Run current = new Run(layerFile)) {
+          while (current.hasNext()) {
+            expand(current.next());
+          }
+        }
+        Files.delete(layerFile);
+        layerFile = null;
+      }
+
+      if (runs.isEmpty()) {
+        layerSize = sortDistinct(buffer, count);
+        layer = Arrays.copyOf(buffer, layerSize);
+        counts[score - 1] = layerSize;
+      } else {
+        spill();
+        layerFile = Files.createTempFile(spillDirectory, "layer", ".run");
+        counts[score - 1] = merge(layerFile);
+        layer = null;
+        layerSize = 0;
+      }
+      if (counts[score - 1] == 0) {
+        break;
+      }
+    }
+    if (layerFile != null) {
+      Files.delete(layerFile);
+    }
+    return counts;
+  }
+
+  /**
+   * Return the number of sorted runs written to the disk so far.
+   *
+   * @return the number of runs spilled.
+   */
+  public int getSpillCount() {
+    return spillCount;
+  }
+
+  // helper method that adds every position one move away from the given
+  // one to the buffer, spilling the buffer when it is full.
+  private void expand(long position) throws IOException {
+    for (int j = 0; j < jumpBits.length; j++) {
+      if ((position & fromAndOver[j]) == fromAndOver[j] && (position & to[j]) == 0) {
+        if (count == buffer.length) {
+          count = sortDistinct(buffer, count);
+          if (count > buffer.length / 2) {
+            spill();
+          }
+        }
+        buffer[count++] = position ^ jumpBits[j];
+      }
+    }
+  }
+
+  // helper method that writes the buffer as a sorted run without duplicates
+  // and empties it.
+  private void spill() throws IOException {
+    count = sortDistinct(buffer, count);
+    Path run = Files.createTempFile(spillDirectory, "spill", ".run");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE))) {
+      for (int i = 0; i < count; i++) {
+        out.writeLong(buffer[i]);
+      }
+    }
+    runs.add(run);
+    spillCount++;
+    count = 0;
+  }
+
+  // helper method that merges the runs into the given file, dropping the
+  // duplicates, deletes the runs and returns the number of positions written.
+  private long merge(Path file) throws IOException {
+    PriorityQueue<Run> heads = new PriorityQueue<>((a, b) -> Long.compare(a.head, b.head));
+    long written = 0;
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+      for (Path run : runs) {
+        Run reader = new Run(run);
+        if (reader.hasNext()) {
+          reader.next();
+          heads.add(reader);
+        } else {
+          reader.close();
+        }
+      }
+      long last = 0;
+      while (!heads.isEmpty()) {
+        Run smallest = heads.poll();
+        if (written == 0 || smallest.head != last) {
+          last = smallest.head;
+          out.writeLong(last);
+          written++;
+        }
+        if (smallest.hasNext()) {
+          smallest.next();
+          heads.add(smallest);
+        } else {
+          smallest.close();
+        }
+      }
+    } finally {
+      for (Run reader : heads) {
+        reader.close();
+      }
+      for (Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+      runs.clear();
+    }
+    return written;
+  }
+
+  // helper method that sorts the first positions of the array, moves the
+  // distinct ones to the front and returns their number.
+  private static int sortDistinct(long[] positions, int length) {
+    Arrays.sort(positions, 0, length);
+    int distinct = 0;
+    for (int i = 0; i < length; i++) {
+      if (distinct == 0 || positions[i] != positions[distinct - 1]) {
+        positions[distinct++] = positions[i];
+      }
+    }
+    return distinct;
+  }
+
+  /**
+   * This class reads the positions of a run or a layer file in order,
+   * remembering the last one read.
+   */
+  private static final class Run implements AutoCloseable {
+    private final DataInputStream in;
+    private long head;
+    private boolean more;
+    private long lookahead;
+
+    Run(Path file) throws IOException {
+      this.in = new DataInputStream(
+              new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+      advance();
+    }
+
+    boolean hasNext() {
+      return more;
+    }
+
+    long next() throws IOException {
+      head = lookahead;
+      advance();
+      return head;
+    }
+
+    // helper method that reads the position after the head, if any.
+    private void advance() throws IOException {
+      try {
+        lookahead = in.readLong();
+        more = true;
+      } catch (EOFException e) {
+        more = false;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,261 @@
+package game.marblesolitaire.solver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a transposition table kept in a memory-mapped file
+ * instead of on the heap, for searches whose positions do not fit in memory.
+ * Positions are stored with open addressing as in HashTranspositionTable,
+ * each slot holding the words of one position, and the operating system
+ * pages the slots in and out of memory as they are used, so a table far
+ * larger than the heap costs no garbage collection. The file is mapped in
+ * segments of at most 1 GB and is sparse until slots are written. When the
+ * table becomes half full the same file is extended to twice the capacity,
+ * mapped again and its positions are moved within it, so growing never
+ * needs a second file. The file only holds the state of one search and is
+ * deleted when the table is closed.
+ */
+public class MappedTranspositionTable implements TranspositionTable, Closeable {
+  private static final int MAX_SEGMENT_BYTES = 1 << 30;
+  private static final long INITIAL_CAPACITY = 1 << 16;
+
+  private final Path file;
+  private final int width;
+  private final FileChannel channel;
+  private ByteBuffer[] segments;
+  private int segmentShift;
+  private long mask;
+  private long size;
+  // the position without marbles marks free slots, so it is kept aside
+  private boolean hasEmptyPosition;
+
+  /**
+   * Constructs an empty table for positions of the given number of words,
+   * stored in the given file. An existing file is overwritten.
+   *
+   * @param file the file to store the positions in.
+   * @param width the number of words of a position.
+   * @throws IllegalArgumentException if the file is null or the width is
+   *     not positive.
+   * @throws IOException if the file cannot be created or mapped.
+   */
+  public MappedTranspositionTable(Path file, int width) throws IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("Null file.");
+    }
+    if (width < 1) {
+      throw new IllegalArgumentException("Invalid position width.");
+    }
+    this.file = file;
+    this.width = width;
+    this.channel = open(file);
+    map(INITIAL_CAPACITY);
+  }
+
+  @Override
+  public boolean contains(long[] position) {
+    if (isEmptyPosition(position)) {
+      return hasEmptyPosition;
+    }
+    return !isFree(findSlot(position));
+  }
+
+  @Override
+  public boolean add(long[] position) {
+    if (isEmptyPosition(position)) {
+      boolean added = !hasEmptyPosition;
+      hasEmptyPosition = true;
+      size += added ? 1 : 0;
+      return added;
+    }
+    long slot = findSlot(position);
+    if (!isFree(slot)) {
+      return false;
+    }
+    write(slot, position);
+    size++;
+    if (2 * size > mask + 1) {
+      try {
+        grow();
+      } catch (IOException e) {
+        throw new IllegalStateException("Fail to grow table.", e);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the number of positions in the table, or the largest int if
+   * there are more.
+   *
+   * @return the number of positions
+   */
+  @Override
+  public int size() {
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Return the number of positions in the table.
+   *
+   * @return the number of positions.
+   */
+  public long longSize() {
+    return size;
+  }
+
+  /**
+   * Release the mapping and delete the file of the table.
+   *
+   * @throws IOException if the file cannot be closed or deleted.
+   */
+  @Override
+  public void close() throws IOException {
+    if (channel.isOpen()) {
+      segments = new ByteBuffer[0];
+      channel.close();
+      Files.deleteIfExists(file);
+    }
+  }
+
+  // helper method that opens the given file empty, for reading and writing.
+  private static FileChannel open(Path path) throws IOException {
+    return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  // helper method that maps the file with room for the given number of
+  // slots, a power of two, extending the file if it is smaller. The slots
+  // already written keep their place.
+  private void map(long capacity) throws IOException {
+    segments = null;
+    long slotBytes = 8L * width;
+    long segmentSlots = Long.highestOneBit(Math.max(MAX_SEGMENT_BYTES / slotBytes, 1));
+    segmentSlots = Math.min(segmentSlots, capacity);
+    int count = (int) (capacity / segmentSlots);
+    ByteBuffer[] mapped = new ByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      mapped[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+              i * segmentSlots * slotBytes, segmentSlots * slotBytes)
+              .order(ByteOrder.nativeOrder());
+    }
+    segments = mapped;
+    segmentShift = Long.numberOfTrailingZeros(segmentSlots);
+    mask = capacity - 1;
+  }
+
+  // helper method that returns the slot holding the given position, or the
+  // free slot where it would be stored.
+  private long findSlot(long[] position) {
+    long slot = HashTranspositionTable.longHash(position, 0, width) & mask;
+    while (!isFree(slot) && !matches(slot, position)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  // helper method to double the capacity of the file and move every
+  // position to its place in the larger table. Positions are taken out one
+  // at a time, starting after a free slot so that no run of positions wraps
+  // around, and put back at once: they land at or before the slot they
+  // left, or in the new upper half, where no slot is freed later. Only the
+  // positions whose run would wrap around the end of the larger table are
+  // put back after all the others, as a later slot they pass may be freed.
+  private void grow() throws IOException {
+    long oldMask = mask;
+    map(2 * (mask + 1));
+    long start = 0;
+    while (!isFree(start)) {
+      start++;
+    }
+    long[] position = new long[width];
+    long[] free = new long[width];
+    List<long[]> wrapping = new ArrayList<>();
+    for (long k = 1; k <= oldMask + 1; k++) {
+      long slot = (start + k) & oldMask;
+      if (isFree(slot)) {
+        continue;
+      }
+      read(slot, position);
+      write(slot, free);
+      long to = HashTranspositionTable.longHash(position, 0, width) & mask;
+      while (!isFree(to) && to < mask) {
+        to++;
+      }
+      if (isFree(to)) {
+        write(to, position);
+      } else {
+        wrapping.add(position.clone());
+      }
+    }
+    for (long[] wrapped : wrapping) {
+      write(findSlot(wrapped), wrapped);
+    }
+  }
+
+  // helper method that reads the words of the position in a slot.
+  private void read(long slot, long[] position) {
+    ByteBuffer segment = segments[(int) (slot >>> segmentShift)];
+    int offset = offsetOf(slot);
+    for (int i = 0; i < width; i++) {
+      position[i] = segment.getLong(offset + 8 * i);
+    }
+  }
+
+  // helper method that writes the words of a position to a slot.
+  private void write(long slot, long[] position) {
+    ByteBuffer segment = segments[(int) (slot >>> segmentShift)];
+    int offset = offsetOf(slot);
+    for (int i = 0; i < width; i++) {
+      segment.putLong(offset + 8 * i, position[i]);
+    }
+  }
+
+  // helper method to see if a slot of the table holds no position.
+  private boolean isFree(long slot) {
+    ByteBuffer segment = segments[(int) (slot >>> segmentShift)];
+    int offset = offsetOf(slot);
+    for (int i = 0; i < width; i++) {
+      if (segment.getLong(offset + 8 * i) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // helper method to see if a slot of the table holds the given position.
+  private boolean matches(long slot, long[] position) {
+    ByteBuffer segment = segments[(int) (slot >>> segmentShift)];
+    int offset = offsetOf(slot);
+    for (int i = 0; i < width; i++) {
+      if (segment.getLong(offset + 8 * i) != position[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // helper method that returns the byte offset of a slot in its segment.
+  private int offsetOf(long slot) {
+    return (int) ((slot & ((1L << segmentShift) - 1)) * 8 * width);
+  }
+
+  // helper method to see if the given position has no marbles.
+  private boolean isEmptyPosition(long[] position) {
+    for (long word : position) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
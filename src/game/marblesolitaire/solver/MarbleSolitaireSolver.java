@@ -0,0 +1,26 @@
+package game.marblesolitaire.solver;
+
+/**
+ * This interface represents the operations offered by a solver of the marble
+ * solitaire game. A solver searches for a sequence of moves that takes the
+ * board of a model down to a single marble.
+ */
+public interface MarbleSolitaireSolver {
+
+  /**
+   * Determine and return if the board can be taken down to a single marble.
+   *
+   * @return true if a solution exists, false otherwise
+   */
+  boolean isSolvable();
+
+  /**
+   * Return a sequence of moves that takes the board down to a single marble.
+   * Each move is packed into an int by MoveEncoding and the moves can be
+   * replayed in order with the move method of the solved model.
+   *
+   * @return the moves of a solution, in the order they are made
+   * @throws IllegalStateException if the board cannot be solved
+   */
+  int[] solve() throws IllegalStateException;
+}
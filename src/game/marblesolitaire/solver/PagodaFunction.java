@@ -0,0 +1,103 @@
+package game.marblesolitaire.solver;
+
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+
+/**
+ * This class represents a pagoda function of a board: a weight for every
+ * slot such that for every jump the weight of the to slot is at most the sum
+ * of the weights of the from and middle slots. The value of a position, the
+ * sum of the weights of the slots holding a marble, can then never grow by a
+ * move, so a position whose value is below the value of the end position
+ * cannot reach that end position. The change every jump makes to the value
+ * is computed once.
+ */
+public final class PagodaFunction {
+  private final int[] weights;
+  private final int[] jumpChange;
+
+  /**
+   * Constructs a pagoda function with the given weights, one per slot of
+   * the layout by bit index.
+   *
+   * @param layout the layout of the board.
+   * @param weights the weight of every slot.
+   * @throws IllegalArgumentException if the weights are null, not one per
+   *     slot, negative, or not a pagoda function of the layout.
+   */
+  public PagodaFunction(BitboardLayout layout, int[] weights) {
+    if (layout == null || !isPagoda(layout, weights)) {
+      throw new IllegalArgumentException("Invalid pagoda function.");
+    }
+    this.weights = weights.clone();
+    this.jumpChange = new int[layout.getJumpCount()];
+    for (int j = 0; j < jumpChange.length; j++) {
+      jumpChange[j] = weights[layout.getJumpTo(j)] - weights[layout.getJumpFrom(j)]
+              - weights[layout.getJumpOver(j)];
+    }
+  }
+
+  /**
+   * Determine if the given weights, one per slot of the layout by bit index,
+   * are a pagoda function of the layout.
+   *
+   * @param layout the layout of the board.
+   * @param weights the weight of every slot.
+   * @return true if there is one non-negative weight per slot and no jump
+   *     increases the value of a position, false otherwise.
+   */
+  public static boolean isPagoda(BitboardLayout layout, int[] weights) {
+    if (weights == null || weights.length != layout.getCellCount()) {
+      return false;
+    }
+    for (int weight : weights) {
+      if (weight < 0) {
+        return false;
+      }
+    }
+    for (int j = 0; j < layout.getJumpCount(); j++) {
+      if (weights[layout.getJumpTo(j)]
+              > weights[layout.getJumpFrom(j)] + weights[layout.getJumpOver(j)]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the weight of the slot with the given bit index.
+   *
+   * @param cell the bit index of the slot.
+   * @return the weight of the slot.
+   */
+  public int getWeight(int cell) {
+    return weights[cell];
+  }
+
+  /**
+   * Return the value of the given position, the sum of the weights of the
+   * slots holding a marble.
+   *
+   * @param position the position as words of marble bits.
+   * @return the value of the position.
+   */
+  public int valueOf(long[] position) {
+    int value = 0;
+    for (int cell = 0; cell < weights.length; cell++) {
+      if (BitboardLayout.isSet(position, cell)) {
+        value += weights[cell];
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Return the change a jump makes to the value of a position, which is
+   * never positive.
+   *
+   * @param jump the index of the jump.
+   * @return the change of the value.
+   */
+  public int getJumpChange(int jump) {
+    return jumpChange[jump];
+  }
+}
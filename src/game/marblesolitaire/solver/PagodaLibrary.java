@@ -0,0 +1,147 @@
+package game.marblesolitaire.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+
+/**
+ * This class provides the pagoda functions used to prune searches whose last
+ * marble must end on a given slot. Only functions that give the target slot
+ * a weight are of use there, so each is built from the target: the target
+ * gets a weight and every jump that would raise the value of a position is
+ * repaired by raising the weight of its from or middle slot, until no jump
+ * does. Repairing every jump by its from slot gives the slots of the same
+ * row and column parity as the target, the classic count of marbles that can
+ * still reach it, and repairing the jumps of some directions by their middle
+ * slot gives the other sets of slots that every marble must pass to get
+ * there. Splitting each repair between both slots gives weights that fall
+ * off with the distance from the target. A layout is only determined by its
+ * board type and arm, so the functions are kept per board type, arm and
+ * target and shared by every search on the same board.
+ */
+public final class PagodaLibrary {
+  // weight of the target in the functions whose weights fall off with the
+  // distance from it
+  private static final int SPLIT_WEIGHT = 1 << 10;
+  // number of ways to pick the from or the middle slot for each of the at
+  // most three jump directions of a board
+  private static final int SET_RULES = 8;
+
+  private static final Map<String, PagodaFunction[]> LIBRARY = new ConcurrentHashMap<>();
+
+  // no instances, the library only has static methods
+  private PagodaLibrary() {
+  }
+
+  /**
+   * Return the pagoda functions of the given layout that give the given
+   * target slot a weight, so that a position whose value is below that
+   * weight cannot end with a single marble on the target.
+   *
+   * @param layout the layout of the board.
+   * @param target the bit index of the target slot, or -1 for anywhere.
+   * @return the pagoda functions, none if the target is anywhere.
+   * @throws IllegalArgumentException if the layout is null or the target is
+   *     not a slot of the layout.
+   */
+  public static PagodaFunction[] forTarget(BitboardLayout layout, int target) {
+    if (layout == null || target < -1 || target >= layout.getCellCount()) {
+      throw new IllegalArgumentException("Invalid target.");
+    }
+    if (target < 0) {
+      return new PagodaFunction[0];
+    }
+    String key = layout.getBoardType() + " " + layout.getArm() + " " + target;
+    return LIBRARY.computeIfAbsent(key, k -> build(layout, target)).clone();
+  }
+
+  // helper method that builds the distinct useful functions for the target.
+  private static PagodaFunction[] build(BitboardLayout layout, int target) {
+    List<int[]> found = new ArrayList<>();
+    for (int rule = 0; rule < SET_RULES; rule++) {
+      addUseful(found, raiseSet(layout, target, rule));
+    }
+    addUseful(found, raiseSplit(layout, target));
+    PagodaFunction[] functions = new PagodaFunction[found.size()];
+    for (int i = 0; i < functions.length; i++) {
+      functions[i] = new PagodaFunction(layout, found.get(i));
+    }
+    return functions;
+  }
+
+  // helper method that starts from a weight of one on the target and puts
+  // a weight of one on the from slot of every jump into a slot of weight one
+  // from two slots of weight zero, or on its middle slot if the bit of the
+  // rule for the direction of the jump is set: bit 0 for jumps along a row,
+  // bit 1 along a column and bit 2 along a diagonal of the triangle.
+  private static int[] raiseSet(BitboardLayout layout, int target, int rule) {
+    int[] weights = new int[layout.getCellCount()];
+    weights[target] = 1;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int j = 0; j < layout.getJumpCount(); j++) {
+        int from = layout.getJumpFrom(j);
+        int over = layout.getJumpOver(j);
+        int to = layout.getJumpTo(j);
+        if (weights[to] > weights[from] + weights[over]) {
+          int direction = layout.getRow(from) == layout.getRow(to) ? 0
+                  : layout.getCol(from) == layout.getCol(to) ? 1 : 2;
+          if ((rule >> direction & 1) == 0) {
+            weights[from] = 1;
+          } else {
+            weights[over] = 1;
+          }
+          changed = true;
+        }
+      }
+    }
+    return weights;
+  }
+
+  // helper method that starts from the split weight on the target and
+  // raises the from and the middle slot of every jump that lands on a
+  // heavier slot by half the missing weight each, until no jump does. No
+  // weight ever exceeds the weight of the target, so the repair ends.
+  private static int[] raiseSplit(BitboardLayout layout, int target) {
+    int[] weights = new int[layout.getCellCount()];
+    weights[target] = SPLIT_WEIGHT;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int j = 0; j < layout.getJumpCount(); j++) {
+        int from = layout.getJumpFrom(j);
+        int over = layout.getJumpOver(j);
+        int missing = weights[layout.getJumpTo(j)] - weights[from] - weights[over];
+        if (missing > 0) {
+          weights[from] += (missing + 1) / 2;
+          weights[over] += missing / 2;
+          changed = true;
+        }
+      }
+    }
+    return weights;
+  }
+
+  // helper method that keeps the weights unless every slot weighs the same,
+  // which only bounds the number of marbles by one, or they were found before.
+  private static void addUseful(List<int[]> found, int[] weights) {
+    boolean constant = true;
+    for (int weight : weights) {
+      constant &= weight == weights[0];
+    }
+    if (constant) {
+      return;
+    }
+    for (int[] other : found) {
+      if (Arrays.equals(other, weights)) {
+        return;
+      }
+    }
+    found.add(weights);
+  }
+}
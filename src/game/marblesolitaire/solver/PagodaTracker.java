@@ -0,0 +1,86 @@
+package game.marblesolitaire.solver;
+
+/**
+ * This class keeps the value of every pagoda function of a target for the
+ * position of a search, as jumps are made and taken back, and tells if a
+ * jump still lets the last marble reach the target. A jump is ruled out if
+ * it leaves the value of a pagoda function below the weight of the target,
+ * since no later move could bring the value back up. Every search that
+ * prunes by pagoda functions uses one tracker per position it walks.
+ */
+final class PagodaTracker {
+  private final PagodaFunction[] pagodas;
+  // least value of every pagoda function from which the target can still
+  // be reached
+  private final int[] limits;
+  private final int[] values;
+
+  /**
+   * Constructs a tracker of the given pagoda functions for the given
+   * position.
+   *
+   * @param pagodas the pagoda functions of the target, none if the target
+   *     is anywhere.
+   * @param target the bit index the last marble must end on, or -1 for anywhere.
+   * @param position the position the search starts from.
+   */
+  PagodaTracker(PagodaFunction[] pagodas, int target, long[] position) {
+    this.pagodas = pagodas;
+    this.limits = new int[pagodas.length];
+    this.values = new int[pagodas.length];
+    for (int i = 0; i < pagodas.length; i++) {
+      limits[i] = pagodas[i].getWeight(target);
+      values[i] = pagodas[i].valueOf(position);
+    }
+  }
+
+  /**
+   * Constructs a tracker at the same position as the given one, whose
+   * values then change on their own.
+   *
+   * @param other the tracker to copy.
+   */
+  PagodaTracker(PagodaTracker other) {
+    this.pagodas = other.pagodas;
+    this.limits = other.limits;
+    this.values = other.values.clone();
+  }
+
+  /**
+   * Determine if every pagoda function still allows the target to be
+   * reached after the given jump.
+   *
+   * @param jump the index of the jump.
+   * @return true if the jump is not ruled out, false otherwise.
+   */
+  boolean canReachTarget(int jump) {
+    for (int i = 0; i < pagodas.length; i++) {
+      if (values[i] + pagodas[i].getJumpChange(jump) < limits[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Apply the change of the given jump to the values.
+   *
+   * @param jump the index of the jump made.
+   */
+  void makeJump(int jump) {
+    for (int i = 0; i < pagodas.length; i++) {
+      values[i] += pagodas[i].getJumpChange(jump);
+    }
+  }
+
+  /**
+   * Take the change of the given jump back from the values.
+   *
+   * @param jump the index of the jump taken back.
+   */
+  void undoJump(int jump) {
+    for (int i = 0; i < pagodas.length; i++) {
+      values[i] -= pagodas[i].getJumpChange(jump);
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package game.marblesolitaire.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+
+/**
+ * This class represents a solver of the marble solitaire game that uses all
+ * the workers of a fork-join pool. The top levels of the move tree are split
+ * into one task per move, and below them each task runs the same depth-first
+ * search as DepthFirstSolver. All tasks share one concurrent transposition
+ * table keyed by symmetry class, so a position that failed in one task, or a
+ * rotation or reflection of it, is never searched by another,
+ * and the first task to find a solution stops all the others. Moves that
+ * the pagoda functions of the target rule out are skipped at every level,
+ * so they get no task either.
+ */
+public class ParallelSolver implements MarbleSolitaireSolver {
+  // number of moves from the start that are split into separate tasks
+  private static final int SPLIT_DEPTH = 4;
+
+  private final ForkJoinPool pool;
+  private final BitboardLayout layout;
+  private final long[] start;
+  private final int startScore;
+  private final int target;
+  private final TranspositionTable failed;
+  private final SymmetryCanonicalizer canonicalizer;
+  private final PagodaFunction[] pagodas;
+  private final AtomicBoolean found;
+  private int[] solution;
+  private boolean searched;
+
+  /**
+   * Constructs a solver that looks for a single marble anywhere on the
+   * board of the given model, using the common fork-join pool.
+   *
+   * @param model the model to solve.
+   * @throws IllegalArgumentException if the model is null or not supported
+   *     by the bitboard model.
+   */
+  public ParallelSolver(MarbleSolitaireModel model) {
+    this(new BitboardSolitaireModel(model), true, 0, 0, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a solver that looks for a single marble left at the given
+   * target slot of the board of the given model, using the given pool.
+   *
+   * @param model the model to solve.
+   * @param targetRow the row of the slot the last marble must end on.
+   * @param targetCol the column of the slot the last marble must end on.
+   * @param pool the pool whose workers run the search.
+   * @throws IllegalArgumentException if the model or the pool is null, the
+   *     model is not supported by the bitboard model, or the target is not
+   *     a valid slot.
+   */
+  public ParallelSolver(MarbleSolitaireModel model, int targetRow, int targetCol,
+                        ForkJoinPool pool) {
+    this(new BitboardSolitaireModel(model), false, targetRow, targetCol, pool);
+  }
+
+  // helper constructor that starts the search from the bitboard copy, with
+  // the last marble allowed anywhere or only on the given target slot.
+  private ParallelSolver(BitboardSolitaireModel start, boolean anywhere,
+                         int targetRow, int targetCol, ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Null pool.");
+    }
+    this.pool = pool;
+    this.layout = start.getLayout();
+    this.target = anywhere ? -1 : layout.getCell(targetRow, targetCol);
+    if (!anywhere && target < 0) {
+      throw new IllegalArgumentException("Invalid target position ("
+              + targetRow + ", " + targetCol + ")");
+    }
+    this.start = start.getPosition();
+    this.startScore = start.getScore();
+    this.failed = new ConcurrentTranspositionTable(layout.getWordCount());
+    this.canonicalizer = new SymmetryCanonicalizer(layout, target);
+    this.pagodas = PagodaLibrary.forTarget(layout, target);
+    this.found = new AtomicBoolean();
+  }
+
+  @Override
+  public boolean isSolvable() {
+    if (!searched) {
+      int[] path = pool.invoke(new SearchTask(start.clone(), startScore,
+              new int[Math.max(startScore - 1, 0)], 0,
+              new PagodaTracker(pagodas, target, start)));
+      if (path != null) {
+        solution = new int[path.length];
+        for (int i = 0; i < path.length; i++) {
+          solution[i] = layout.getJumpMove(path[i]);
+        }
+      }
+      searched = true;
+    }
+    return solution != null;
+  }
+
+  @Override
+  public int[] solve() throws IllegalStateException {
+    if (!isSolvable()) {
+      throw new IllegalStateException("No solution.");
+    }
+    return solution.clone();
+  }
+
+  /**
+   * Return the number of positions found to have no solution so far.
+   *
+   * @return the number of failed positions in the transposition table.
+   */
+  public int getFailedCount() {
+    return failed.size();
+  }
+
+  /**
+   * This class represents the search of the subtree below one position,
+   * reached by the jumps of its path. It returns the full path of jumps of
+   * a solution, or null if the subtree has none. Moves the pagoda functions
+   * rule out get no task of their own.
+   */
+  private class SearchTask extends RecursiveTask<int[]> {
+    private static final long serialVersionUID = 1L;
+
+    private final long[] position;
+    private final int score;
+    private final int[] path;
+    private final int depth;
+    private final PagodaTracker tracker;
+
+    SearchTask(long[] position, int score, int[] path, int depth, PagodaTracker tracker) {
+      this.position = position;
+      this.score = score;
+      this.path = path;
+      this.depth = depth;
+      this.tracker = tracker;
+    }
+
+    @Override
+    protected int[] compute() {
+      if (depth >= SPLIT_DEPTH || score == 1) {
+        BacktrackingSearch search = new BacktrackingSearch(layout, target, failed,
+                new SymmetryCanonicalizer(canonicalizer), found, tracker, null,
+                position, score, path);
+        if (search.search(depth)) {
+          found.set(true);
+          return path;
+        }
+        return null;
+      }
+      long[] key = new long[position.length];
+      new SymmetryCanonicalizer(canonicalizer).canonicalize(position, key);
+      if (found.get() || failed.contains(key)) {
+        return null;
+      }
+
+      List<SearchTask> children = new ArrayList<>();
+      for (int j = 0; j < layout.getJumpCount(); j++) {
+        if (layout.canJump(position, j) && tracker.canReachTarget(j)) {
+          long[] next = position.clone();
+          layout.flipJump(next, j);
+          int[] nextPath = path.clone();
+          nextPath[depth] = j;
+          PagodaTracker nextTracker = new PagodaTracker(tracker);
+          nextTracker.makeJump(j);
+          children.add(new SearchTask(next, score - 1, nextPath, depth + 1, nextTracker));
+        }
+      }
+      for (SearchTask child : invokeAll(children)) {
+        int[] result = child.join();
+        if (result != null) {
+          return result;
+        }
+      }
+      if (!found.get()) {
+        failed.add(key);
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package game.marblesolitaire.solver;
+
+import java.math.BigInteger;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+
+/**
+ * This class counts the distinct sequences of moves that take the board of
+ * a model down to a single marble, on a given target slot or anywhere. The
+ * number of solutions of a position is the sum of the numbers of its
+ * children, so it is computed once per position and remembered: positions
+ * with no solution are kept in a transposition table, and the others with
+ * their count in a table of their own. Positions are keyed by the
+ * representative of their symmetry class under the symmetries that keep the
+ * target in place, which have the same number of solutions. Counts are kept
+ * as unsigned 128-bit numbers, two words each, and the result is returned
+ * as a BigInteger. Moves that the pagoda functions of the target rule out
+ * lead to no solution and are not searched.
+ */
+public class SolutionCounter {
+  private final BitboardLayout layout;
+  private final int target;
+  private final SymmetryCanonicalizer canonicalizer;
+  private final PagodaTracker pagodas;
+  private final long[] position;
+  private final long[][] keys;
+  private final TranspositionTable unsolvable;
+  // positions with solutions, with the high and low words of their count
+  private final HashTranspositionTable solvable;
+  private int score;
+  private BigInteger solutions;
+  // count of the position last counted, as the high and low words
+  private long countHigh;
+  private long countLow;
+
+  /**
+   * Constructs a counter of the solutions that leave a single marble
+   * anywhere on the board of the given model. The model itself is never
+   * changed.
+   *
+   * @param model the model whose solutions are counted.
+   * @throws IllegalArgumentException if the model is null or not supported
+   *     by the bitboard model.
+   */
+  public SolutionCounter(MarbleSolitaireModel model) {
+    this(new BitboardSolitaireModel(model), true, 0, 0);
+  }
+
+  /**
+   * Constructs a counter of the solutions that leave a single marble at
+   * the given target slot of the board of the given model. The model itself
+   * is never changed.
+   *
+   * @param model the model whose solutions are counted.
+   * @param targetRow the row of the slot the last marble must end on.
+   * @param targetCol the column of the slot the last marble must end on.
+   * @throws IllegalArgumentException if the model is null or not supported
+   *     by the bitboard model, or the target is not a valid slot.
+   */
+  public SolutionCounter(MarbleSolitaireModel model, int targetRow, int targetCol) {
+    this(new BitboardSolitaireModel(model), false, targetRow, targetCol);
+  }
+
+  // helper constructor that counts from the bitboard copy, with the last
+  // marble allowed anywhere or only on the given target slot.
+  private SolutionCounter(BitboardSolitaireModel start, boolean anywhere,
+                          int targetRow, int targetCol) {
+    this.layout = start.getLayout();
+    this.target = anywhere ? -1 : layout.getCell(targetRow, targetCol);
+    if (!anywhere && target < 0) {
+      throw new IllegalArgumentException("Invalid target position ("
+              + targetRow + ", " + targetCol + ")");
+    }
+    this.canonicalizer = new SymmetryCanonicalizer(layout, target);
+    this.position = start.getPosition();
+    this.score = start.getScore();
+    this.pagodas = new PagodaTracker(PagodaLibrary.forTarget(layout, target), target, position);
+    this.keys = new long[Math.max(score, 1)][layout.getWordCount()];
+    this.unsolvable = new HashTranspositionTable(layout.getWordCount());
+    this.solvable = new HashTranspositionTable(layout.getWordCount(), 2);
+  }
+
+  /**
+   * Return the number of distinct sequences of moves that end with a single
+   * marble, counting every order of the moves. A board that already has a
+   * single marble has one solution, the empty sequence, if the marble is
+   * allowed where it is.
+   *
+   * @return the number of solutions.
+   */
+  public BigInteger countSolutions() {
+    if (solutions == null) {
+      if (score == 0) {
+        countHigh = 0;
+        countLow = 0;
+      } else {
+        count(0);
+      }
+      solutions = toBigInteger(countHigh, countLow);
+    }
+    return solutions;
+  }
+
+  /**
+   * Return the number of positions whose count is remembered so far, up to
+   * symmetry.
+   *
+   * @return the number of remembered positions.
+   */
+  public int getPositionCount() {
+    return unsolvable.size() + solvable.size();
+  }
+
+  // helper method that counts the solutions of the current position, with
+  // depth moves already made, into countHigh and countLow. The position is
+  // left unchanged.
+  private void count(int depth) {
+    if (score == 1) {
+      countHigh = 0;
+      countLow = target < 0 || BitboardLayout.isSet(position, target) ? 1 : 0;
+      return;
+    }
+    long[] key = keys[depth];
+    canonicalizer.canonicalize(position, key);
+    if (unsolvable.contains(key)) {
+      countHigh = 0;
+      countLow = 0;
+      return;
+    }
+    int slot = solvable.slotOf(key);
+    if (slot >= 0) {
+      countHigh = solvable.getValue(slot, 0);
+      countLow = solvable.getValue(slot, 1);
+      return;
+    }
+
+    long high = 0;
+    long low = 0;
+    for (int j = 0; j < layout.getJumpCount(); j++) {
+      if (layout.canJump(position, j) && pagodas.canReachTarget(j)) {
+        layout.flipJump(position, j);
+        pagodas.makeJump(j);
+        score--;
+        count(depth + 1);
+        layout.flipJump(position, j);
+        pagodas.undoJump(j);
+        score++;
+        long sum = low + countLow;
+        high = addHigh(high, countHigh, Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+        low = sum;
+      }
+    }
+    if (high == 0 && low == 0) {
+      unsolvable.add(key);
+    } else {
+      slot = solvable.put(key);
+      solvable.setValue(slot, 0, high);
+      solvable.setValue(slot, 1, low);
+    }
+    countHigh = high;
+    countLow = low;
+  }
+
+  // helper method that adds the high words of two counts and the carry of
+  // their low words, failing if the sum does not fit in 128 bits.
+  private static long addHigh(long high, long otherHigh, long carry) {
+    long sum = high + otherHigh;
+    if (Long.compareUnsigned(sum, high) < 0
+            || (carry == 1 && sum == -1L)) {
+      throw new ArithmeticException("Too many solutions.");
+    }
+    return sum + carry;
+  }
+
+  // helper method that returns the unsigned 128-bit number of the given
+  // high and low words.
+  private static BigInteger toBigInteger(long high, long low) {
+    byte[] bytes = new byte[17];
+    for (int i = 0; i < 8; i++) {
+      bytes[1 + i] = (byte) (high >>> (56 - 8 * i));
+      bytes[9 + i] = (byte) (low >>> (56 - 8 * i));
+    }
+    return new BigInteger(bytes);
+  }
+}
@@ -0,0 +1,299 @@
+package game.marblesolitaire.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+
+/**
+ * This class maps board positions to one representative of their symmetry
+ * class, so that positions that are rotations or reflections of each other
+ * share one entry in a transposition table. The symmetries are found from the
+ * layout itself: the eight rotations and reflections of the square, which
+ * keep English and European boards, and the six of the triangle, which keep
+ * Triangular boards, are each kept if they map every slot to a slot and every
+ * jump to a jump. The permutation of the slots of every symmetry is computed
+ * once, together with lookup tables that permute a position eight bits at a
+ * time. The representative of a position is its smallest image, comparing
+ * positions as unsigned numbers.
+ */
+public class SymmetryCanonicalizer {
+  // largest number of words the byte lookup tables may take, above that the
+  // permutations are applied slot by slot
+  private static final int MAX_TABLE_WORDS = 1 << 22;
+
+  private final BitboardLayout layout;
+  private final int width;
+  private final int chunks;
+  private final int[][] permutations;
+  private final long[] tables;
+  private final long[] image;
+  private final long[] best;
+
+  /**
+   * Constructs a canonicalizer that uses every symmetry of the given layout.
+   *
+   * @param layout the layout of the board.
+   */
+  public SymmetryCanonicalizer(BitboardLayout layout) {
+    this(layout, -1);
+  }
+
+  /**
+   * Constructs a canonicalizer that only uses the symmetries of the given
+   * layout that leave the given slot in place, for searches whose last
+   * marble must end on that slot.
+   *
+   * @param layout the layout of the board.
+   * @param fixedCell the bit index of the slot to keep in place, or -1 for none.
+   */
+  public SymmetryCanonicalizer(BitboardLayout layout, int fixedCell) {
+    this.layout = layout;
+    this.width = layout.getWordCount();
+    this.chunks = (layout.getCellCount() + 7) / 8;
+    this.permutations = findSymmetries(layout, fixedCell);
+    this.image = new long[width];
+    this.best = new long[width];
+    long tableWords = (long) permutations.length * chunks * 256 * width;
+    this.tables = tableWords <= MAX_TABLE_WORDS ? buildTables() : null;
+  }
+
+  /**
+   * Constructs a canonicalizer that shares the symmetries and tables of the
+   * given one. A canonicalizer keeps scratch space of its own, so each
+   * thread needs its own copy.
+   *
+   * @param other the canonicalizer to share the tables of.
+   */
+  public SymmetryCanonicalizer(SymmetryCanonicalizer other) {
+    this.layout = other.layout;
+    this.width = other.width;
+    this.chunks = other.chunks;
+    this.permutations = other.permutations;
+    this.tables = other.tables;
+    this.image = new long[width];
+    this.best = new long[width];
+  }
+
+  /**
+   * Return the number of symmetries used, including the identity.
+   *
+   * @return the number of symmetries.
+   */
+  public int getSymmetryCount() {
+    return permutations.length;
+  }
+
+  /**
+   * Return the slot the given slot is moved to by one of the symmetries.
+   *
+   * @param symmetry the index of the symmetry.
+   * @param cell the bit index of the slot.
+   * @return the bit index of the image of the slot.
+   */
+  public int mapCell(int symmetry, int cell) {
+    return permutations[symmetry][cell];
+  }
+
+  /**
+   * Write the representative of the symmetry class of a position into the
+   * given array. The position and the result may be the same array. No
+   * objects are allocated.
+   *
+   * @param position the position as words of marble bits.
+   * @param result the array receiving the representative.
+   */
+  public void canonicalize(long[] position, long[] result) {
+    if (permutations.length == 1) {
+      System.arraycopy(position, 0, result, 0, width);
+      return;
+    }
+    permute(0, position, best);
+    for (int s = 1; s < permutations.length; s++) {
+      permute(s, position, image);
+      if (compare(image, best) < 0) {
+        System.arraycopy(image, 0, best, 0, width);
+      }
+    }
+    System.arraycopy(best, 0, result, 0, width);
+  }
+
+  /**
+   * Return the representative of the symmetry class of the position shown
+   * by the given model state, which must have the board of this layout.
+   *
+   * @param state the model state to read the slots from.
+   * @return the representative as words of marble bits.
+   * @throws IllegalArgumentException if the state has a different board.
+   */
+  public long[] canonicalize(MarbleSolitaireModelState state) {
+    if (state.getBoardSize() != layout.getBoardSize()) {
+      throw new IllegalArgumentException("Different board.");
+    }
+    long[] position = new long[width];
+    for (int r = 0; r < layout.getBoardSize(); r++) {
+      for (int c = 0; c < layout.getBoardSize(); c++) {
+        int cell = layout.getCell(r, c);
+        MarbleSolitaireModelState.SlotState slot = state.getSlotAt(r, c);
+        if ((cell < 0) != slot.equals(MarbleSolitaireModelState.SlotState.Invalid)) {
+          throw new IllegalArgumentException("Different board.");
+        }
+        if (slot.equals(MarbleSolitaireModelState.SlotState.Marble)) {
+          position[cell >>> 6] |= 1L << cell;
+        }
+      }
+    }
+    canonicalize(position, position);
+    return position;
+  }
+
+  // helper method that writes the image of a position under one symmetry.
+  private void permute(int symmetry, long[] position, long[] result) {
+    Arrays.fill(result, 0);
+    if (tables != null) {
+      for (int k = 0; k < chunks; k++) {
+        int bits = (int) (position[k >>> 3] >>> ((k & 7) * 8)) & 0xFF;
+        int base = (((symmetry * chunks) + k) * 256 + bits) * width;
+        for (int w = 0; w < width; w++) {
+          result[w] |= tables[base + w];
+        }
+      }
+    } else {
+      int[] permutation = permutations[symmetry];
+      for (int cell = 0; cell < permutation.length; cell++) {
+        if (BitboardLayout.isSet(position, cell)) {
+          int to = permutation[cell];
+          result[to >>> 6] |= 1L << to;
+        }
+      }
+    }
+  }
+
+  // helper method that computes, for every symmetry and every group of
+  // eight slots, the image of each of the 256 ways to fill the group.
+  private long[] buildTables() {
+    long[] result = new long[permutations.length * chunks * 256 * width];
+    for (int s = 0; s < permutations.length; s++) {
+      for (int k = 0; k < chunks; k++) {
+        for (int bits = 0; bits < 256; bits++) {
+          int base = (((s * chunks) + k) * 256 + bits) * width;
+          for (int i = 0; i < 8; i++) {
+            int cell = k * 8 + i;
+            if ((bits & (1 << i)) != 0 && cell < layout.getCellCount()) {
+              int to = permutations[s][cell];
+              result[base + (to >>> 6)] |= 1L << to;
+            }
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  // helper method that compares two positions as unsigned numbers.
+  private static int compare(long[] a, long[] b) {
+    for (int w = a.length - 1; w >= 0; w--) {
+      int result = Long.compareUnsigned(a[w], b[w]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  // helper method that returns the slot permutations of the square and
+  // triangle symmetries that map the layout onto itself and keep the
+  // given slot in place.
+  private static int[][] findSymmetries(BitboardLayout layout, int fixedCell) {
+    List<int[]> found = new ArrayList<>();
+    for (int candidate = 0; candidate < 14; candidate++) {
+      int[] permutation = candidatePermutation(layout, candidate);
+      if (permutation != null && keepsJumps(layout, permutation)
+              && (fixedCell < 0 || permutation[fixedCell] == fixedCell)
+              && !containsPermutation(found, permutation)) {
+        found.add(permutation);
+      }
+    }
+    return found.toArray(new int[0][]);
+  }
+
+  // helper method that returns the slot permutation of one candidate
+  // symmetry, the first eight of the square and the last six of the
+  // triangle, or null if it maps a slot off the board.
+  private static int[] candidatePermutation(BitboardLayout layout, int candidate) {
+    int n = layout.getBoardSize();
+    int[] permutation = new int[layout.getCellCount()];
+    for (int cell = 0; cell < permutation.length; cell++) {
+      int r = layout.getRow(cell);
+      int c = layout.getCol(cell);
+      int[] to;
+      if (candidate < 8) {
+        to = squareImage(candidate, n, r, c);
+      } else {
+        to = triangleImage(candidate - 8, n, r, c);
+      }
+      permutation[cell] = layout.getCell(to[0], to[1]);
+      if (permutation[cell] < 0) {
+        return null;
+      }
+    }
+    return permutation;
+  }
+
+  // helper method that returns the image of a slot under one of the four
+  // rotations and four reflections of a square board of size n.
+  private static int[] squareImage(int k, int n, int r, int c) {
+    switch (k) {
+      case 0:
+        return new int[] {r, c};
+      case 1:
+        return new int[] {c, n - 1 - r};
+      case 2:
+        return new int[] {n - 1 - r, n - 1 - c};
+      case 3:
+        return new int[] {n - 1 - c, r};
+      case 4:
+        return new int[] {r, n - 1 - c};
+      case 5:
+        return new int[] {n - 1 - r, c};
+      case 6:
+        return new int[] {c, r};
+      default:
+        return new int[] {n - 1 - c, n - 1 - r};
+    }
+  }
+
+  // helper method that returns the image of a slot under one of the six
+  // permutations of its three distances to the sides of a triangle of size n.
+  private static int[] triangleImage(int k, int n, int r, int c) {
+    int[] d = {c, r - c, n - 1 - r};
+    int[][] orders = {{0, 1, 2}, {1, 2, 0}, {2, 0, 1}, {1, 0, 2}, {0, 2, 1}, {2, 1, 0}};
+    int a = d[orders[k][0]];
+    int b = d[orders[k][1]];
+    return new int[] {a + b, a};
+  }
+
+  // helper method to see if a permutation maps every jump to a jump.
+  private static boolean keepsJumps(BitboardLayout layout, int[] permutation) {
+    for (int j = 0; j < layout.getJumpCount(); j++) {
+      int image = layout.findJump(permutation[layout.getJumpFrom(j)],
+              permutation[layout.getJumpTo(j)]);
+      if (image < 0 || layout.getJumpOver(image) != permutation[layout.getJumpOver(j)]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // helper method to see if a permutation was already found.
+  private static boolean containsPermutation(List<int[]> found, int[] permutation) {
+    for (int[] other : found) {
+      if (Arrays.equals(other, permutation)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
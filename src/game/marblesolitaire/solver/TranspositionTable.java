@@ -0,0 +1,33 @@
+package game.marblesolitaire.solver;
+
+/**
+ * This interface represents a set of board positions seen by a solver. A
+ * position is given as words of marble bits, as returned by the bitboard
+ * model, and every position in one table has the same number of words.
+ */
+public interface TranspositionTable {
+
+  /**
+   * Determine if the given position is in the table.
+   *
+   * @param position the position as words of marble bits
+   * @return true if the position is in the table, false otherwise
+   */
+  boolean contains(long[] position);
+
+  /**
+   * Add the given position to the table. The table keeps its own copy, so
+   * the array may be changed afterwards.
+   *
+   * @param position the position as words of marble bits
+   * @return true if the position was added, false if it was already in the table
+   */
+  boolean add(long[] position);
+
+  /**
+   * Return the number of positions in the table.
+   *
+   * @return the number of positions
+   */
+  int size();
+}
@@ -1,12 +1,22 @@
 package game.marblesolitaire.view;
 
+import java.io.Flushable;
 import java.io.IOException;
+import java.nio.CharBuffer;
+
 import game.marblesolitaire.model.single.MarbleSolitaireModelState;
 
 /**
  * Abstract Class representing an abstract marble solitaire model view.
+ * Boards larger than STREAM_SIZE are rendered row by row straight into the
+ * Appendable, so rendering them only ever holds one row of text. A view
+ * made with a buffer size collects its output and passes it on to the
+ * Appendable in large pieces, when the buffer is full and when it is flushed.
  */
 public abstract class AbstractSolitaireView implements MarbleSolitaireView {
+  // largest board size rendered in one piece, larger boards are streamed by row
+  protected static final int STREAM_SIZE = 100;
+
   protected MarbleSolitaireModelState marbleS;
   protected Appendable out;
 
@@ -27,6 +37,26 @@ public abstract class AbstractSolitaireView implements MarbleSolitaireView {
     this.out = out;
   }
 
+  /**
+   * Constructs a MarbleSolitaireTextView object with the provided
+   * MarbleSolitaireModelState and Appendable, whose output is collected in
+   * a buffer of the given size and only passed on to the Appendable when the
+   * buffer is full or flushed. A failure of the Appendable is thrown by the
+   * render or the flush that passes the text on, not by the render that
+   * added the text.
+   *
+   * @param s The MarbleSolitaireModelState object representing the game.
+   * @param out The Appendable object representing the state and any message
+   *            of the game.
+   * @param bufferSize the number of characters to collect at most.
+   * @throws IllegalArgumentException if the provided model is null or the
+   *     buffer size is not positive.
+   */
+  public AbstractSolitaireView(MarbleSolitaireModelState s, Appendable out, int bufferSize) {
+    this(s, out);
+    this.out = new BufferedAppendable(out, bufferSize);
+  }
+
   /**
    * Render the board to the provided data destination. The board should be rendered exactly
    * in the format produced by the toString method above
@@ -34,9 +64,39 @@ public abstract class AbstractSolitaireView implements MarbleSolitaireView {
    */
   @Override
   public void renderBoard() throws IOException {
+    int size = this.marbleS.getBoardSize();
+    if (size > STREAM_SIZE) {
+      streamBoard(size);
+    } else {
+      renderWholeBoard();
+    }
+  }
+
+  // helper method that renders a board of at most STREAM_SIZE rows in one
+  // piece, in the format produced by toString.
+  protected void renderWholeBoard() throws IOException {
     this.out.append(toString());
   }
 
+  // helper method that writes the text of one row, without its new line,
+  // into the given array, which holds 2 * size characters, and returns its length.
+  protected abstract int writeRow(int row, char[] line);
+
+  // helper method that appends the board one row at a time, reusing a
+  // single row of text.
+  private void streamBoard(int size) throws IOException {
+    char[] line = new char[2 * size];
+    CharBuffer chunk = CharBuffer.wrap(line);
+    for (int r = 0; r < size; r++) {
+      if (r > 0) {
+        this.out.append('\n');
+      }
+      chunk.clear();
+      chunk.limit(writeRow(r, line));
+      this.out.append(chunk);
+    }
+  }
+
   /**
    * Render a specific message to the provided data destination.
    * @param message the message to be transmitted
@@ -50,4 +110,16 @@ public abstract class AbstractSolitaireView implements MarbleSolitaireView {
     }
     this.out.append(message);
   }
+
+  /**
+   * Pass everything rendered so far on to the provided data destination,
+   * and flush the destination if it can be flushed.
+   * @throws IOException if transmission to the provided data destination fails
+   */
+  @Override
+  public void flush() throws IOException {
+    if (this.out instanceof Flushable) {
+      ((Flushable) this.out).flush();
+    }
+  }
 }
@@ -0,0 +1,101 @@
+package game.marblesolitaire.view;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * This class collects the text appended to it in a fixed buffer and passes
+ * it on to another Appendable in large pieces: when the buffer is full and
+ * when it is flushed. Text larger than the buffer is passed on directly. An
+ * IOException of the other Appendable is thrown by the append or flush that
+ * passes the text on.
+ */
+final class BufferedAppendable implements Appendable, Flushable {
+  private final Appendable target;
+  private final char[] buffer;
+  private final CharBuffer pending;
+  private int length;
+
+  /**
+   * Constructs a buffer in front of the given Appendable.
+   *
+   * @param target the Appendable to pass the text on to.
+   * @param capacity the number of characters to collect at most.
+   * @throws IllegalArgumentException if the capacity is not positive.
+   */
+  BufferedAppendable(Appendable target, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Invalid buffer size.");
+    }
+    this.target = target;
+    this.buffer = new char[capacity];
+    this.pending = CharBuffer.wrap(buffer);
+  }
+
+  @Override
+  public Appendable append(CharSequence csq) throws IOException {
+    CharSequence text = csq == null ? "null" : csq;
+    return append(text, 0, text.length());
+  }
+
+  @Override
+  public Appendable append(CharSequence csq, int start, int end) throws IOException {
+    CharSequence text = csq == null ? "null" : csq;
+    if (start < 0 || start > end || end > text.length()) {
+      throw new IndexOutOfBoundsException("Invalid range.");
+    }
+    if (end - start > buffer.length - length) {
+      passOn();
+      if (end - start > buffer.length) {
+        target.append(text, start, end);
+        return this;
+      }
+    }
+    for (int i = start; i < end; i++) {
+      buffer[length++] = text.charAt(i);
+    }
+    return this;
+  }
+
+  @Override
+  public Appendable append(char c) throws IOException {
+    if (length == buffer.length) {
+      passOn();
+    }
+    buffer[length++] = c;
+    return this;
+  }
+
+  /**
+   * Pass the collected text on, and flush the other Appendable if it can be
+   * flushed.
+   *
+   * @throws IOException if the other Appendable fails.
+   */
+  @Override
+  public void flush() throws IOException {
+    passOn();
+    if (target instanceof Flushable) {
+      ((Flushable) target).flush();
+    }
+  }
+
+  // helper method that passes the collected text on in one piece. The text
+  // is dropped even if passing it on fails, so a failure is reported once.
+  private void passOn() throws IOException {
+    if (length == 0) {
+      return;
+    }
+    int count = length;
+    length = 0;
+    if (target instanceof Writer) {
+      ((Writer) target).write(buffer, 0, count);
+    } else {
+      pending.clear();
+      pending.limit(count);
+      target.append(pending);
+    }
+  }
+}
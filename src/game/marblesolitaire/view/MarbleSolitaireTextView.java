@@ -1,13 +1,31 @@
 package game.marblesolitaire.view;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
+
 import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.single.MoveEncoding;
 
 /**
  * This class represents a MarbleSolitaireTextView. It offers all the operations
- * mandated by the MarbleSolitaireView interface.
+ * mandated by the MarbleSolitaireView interface. The text of the board is
+ * kept between renders. A model that keeps track of its changes tells a
+ * render which moves were made, undone or redone since the last one, and
+ * only the three slots of each are read and rewritten. The text of any
+ * other model state is laid out again from all its slots on every render.
  */
 public class MarbleSolitaireTextView extends AbstractSolitaireView
         implements MarbleSolitaireView {
+  // text of the board as last rendered, and a read-only view of it
+  private char[] text;
+  private int textLength;
+  private CharBuffer textView;
+  // position in text of the first slot of each row
+  private int[] rowStarts;
+  // number of changes of the model when the text was last brought up to date
+  private long changeCount;
+  // moves of the changes read from the model at a time
+  private final int[] changedMoves = new int[8];
 
   /**
    * Constructs a MarbleSolitaireTextView object with the provided
@@ -33,6 +51,23 @@ public class MarbleSolitaireTextView extends AbstractSolitaireView
     super(s, out);
   }
 
+  /**
+   * Constructs a MarbleSolitaireTextView object with the provided
+   * MarbleSolitaireModelState and Appendable, whose output is collected in
+   * a buffer of the given size and only passed on to the Appendable when the
+   * buffer is full or flushed.
+   *
+   * @param s The MarbleSolitaireModelState object representing the game.
+   * @param out The Appendable object representing the state and any message
+   *            of the game.
+   * @param bufferSize the number of characters to collect at most.
+   * @throws IllegalArgumentException if the provided model is null or the
+   *     buffer size is not positive.
+   */
+  public MarbleSolitaireTextView(MarbleSolitaireModelState s, Appendable out, int bufferSize) {
+    super(s, out, bufferSize);
+  }
+
   /**
    * Returns a string representation of the current Marble Solitaire game
    * state. The string represents the game board. Each slot on the game
@@ -46,39 +81,126 @@ public class MarbleSolitaireTextView extends AbstractSolitaireView
    */
   @Override
   public String toString() {
+    refreshText();
+    return new String(text, 0, textLength);
+  }
+
+  // helper method that renders the board straight from its cached text.
+  @Override
+  protected void renderWholeBoard() throws IOException {
+    refreshText();
+    this.out.append(textView);
+  }
+
+  // helper method that writes one row of the board, its slots up to the
+  // last valid one separated by spaces.
+  @Override
+  protected int writeRow(int row, char[] line) {
     int size = this.marbleS.getBoardSize();
-    StringBuilder sb = new StringBuilder();
-    for (int r = 0; r < size; r++) {
-      if (r > 0) {
-        sb.append("\n");
+    int length = 1;
+    for (int c = 0; c < size; c++) {
+      MarbleSolitaireModelState.SlotState slot = this.marbleS.getSlotAt(row, c);
+      if (c > 0) {
+        line[2 * c - 1] = ' ';
       }
+      line[2 * c] = slotChar(slot);
+      if (!slot.equals(MarbleSolitaireModelState.SlotState.Invalid)) {
+        length = 2 * c + 1;
+      }
+    }
+    return length;
+  }
+
+  // helper method that brings the cached text up to date with the model,
+  // rewriting only the slots of the moves made, undone or redone since the
+  // last render. The text is laid out again when the board size changes or
+  // the model does not know what changed.
+  private void refreshText() {
+    int size = this.marbleS.getBoardSize();
+    long count = this.marbleS.getChangeCount();
+    if (text == null || rowStarts.length != size || count < 0 || count < changeCount) {
+      layoutText(size);
+      changeCount = count;
+      return;
+    }
+    while (changeCount < count) {
+      int changes = this.marbleS.getChangedMoves(changeCount, changedMoves);
+      if (changes < 0) {
+        layoutText(size);
+        break;
+      }
+      int read = Math.min(changes, changedMoves.length);
+      for (int i = 0; i < read; i++) {
+        rewriteMove(changedMoves[i]);
+      }
+      changeCount += read;
+    }
+    changeCount = count;
+  }
+
+  // helper method that rewrites the characters of the three slots of a move.
+  private void rewriteMove(int move) {
+    int fromRow = MoveEncoding.fromRow(move);
+    int fromCol = MoveEncoding.fromCol(move);
+    int toRow = MoveEncoding.toRow(move);
+    int toCol = MoveEncoding.toCol(move);
+    rewriteSlot(fromRow, fromCol);
+    rewriteSlot((fromRow + toRow) / 2, (fromCol + toCol) / 2);
+    rewriteSlot(toRow, toCol);
+  }
+
+  // helper method that rewrites the character of one valid slot.
+  private void rewriteSlot(int row, int col) {
+    text[rowStarts[row] + 2 * col] = slotChar(this.marbleS.getSlotAt(row, col));
+  }
+
+  // helper method that reads every slot and lays out the text of the board
+  // from scratch, remembering where each row starts.
+  private void layoutText(int size) {
+    if (rowStarts == null || rowStarts.length != size) {
+      rowStarts = new int[size];
+    }
+    int length = 0;
+    for (int r = 0; r < size; r++) {
       int lastValid = 0;
       for (int c = 0; c < size; c++) {
-        if (c > 0) {
-          sb.append(" ");
+        if (!this.marbleS.getSlotAt(r, c).equals(MarbleSolitaireModelState.SlotState.Invalid)) {
+          lastValid = c;
         }
-        MarbleSolitaireModelState.SlotState marble = this.marbleS.getSlotAt(r, c);
-        switch (marble) {
-          case Invalid:
-            sb.append(" ");
-            break;
-          case Empty:
-            lastValid = c;
-            sb.append("_");
-            break;
-          case Marble:
-            lastValid = c;
-            sb.append("O");
-            break;
-
-          // No action intended for this case
-          default:
-            break;
+      }
+      // each row is its slots up to the last valid one, separated by spaces
+      length += r > 0 ? 1 : 0;
+      rowStarts[r] = length;
+      length += 2 * lastValid + 1;
+    }
+    if (text == null || text.length != length) {
+      text = new char[length];
+      textView = CharBuffer.wrap(text, 0, length);
+    }
+    textLength = length;
+    for (int r = 0; r < size; r++) {
+      int rowEnd = r + 1 < size ? rowStarts[r + 1] - 1 : length;
+      if (r > 0) {
+        text[rowStarts[r] - 1] = '\n';
+      }
+      for (int c = 0; rowStarts[r] + 2 * c < rowEnd; c++) {
+        if (c > 0) {
+          text[rowStarts[r] + 2 * c - 1] = ' ';
         }
+        text[rowStarts[r] + 2 * c] = slotChar(this.marbleS.getSlotAt(r, c));
       }
-      sb.setLength(sb.length()
-              - 2 * (size - lastValid - 1));
     }
-    return sb.toString();
+  }
+
+  // helper method that returns the character of a slot.
+  private static char slotChar(MarbleSolitaireModelState.SlotState slot) {
+    switch (slot) {
+      case Empty:
+        return '_';
+      case Marble:
+        return 'O';
+      default:
+        return ' ';
+    }
   }
 }
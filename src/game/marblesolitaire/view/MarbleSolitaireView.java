@@ -21,14 +21,29 @@ public interface MarbleSolitaireView {
   /**
    * Render the board to the provided data destination. The board should be rendered exactly
    * in the format produced by the toString method above
-   * @throws IOException if transmission of the board to the provided data destination fails
+   * @throws IOException if transmission of the board to the provided data destination fails.
+   *     A view that collects its output in a buffer only transmits it once the
+   *     buffer is full, so it may report the failure at a later render or flush instead
    */
   void renderBoard() throws IOException;
 
   /**
    * Render a specific message to the provided data destination.
    * @param message the message to be transmitted
-   * @throws IOException if transmission of the board to the provided data destination fails
+   * @throws IOException if transmission of the message to the provided data destination
+   *     fails. A view that collects its output in a buffer only transmits it once the
+   *     buffer is full, so it may report the failure at a later render or flush instead
    */
   void renderMessage(String message) throws IOException;
+
+  /**
+   * Make sure everything rendered so far has reached the provided data
+   * destination. A view that collects its output in a buffer passes it on
+   * here, so a failure to transmit it may only be reported by this method.
+   * A view that transmits everything as it renders has nothing to do, which
+   * is what this method does by default.
+   * @throws IOException if transmission to the provided data destination fails
+   */
+  default void flush() throws IOException {
+  }
 }
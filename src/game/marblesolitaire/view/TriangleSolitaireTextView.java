@@ -1,13 +1,24 @@
 package game.marblesolitaire.view;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 import game.marblesolitaire.model.single.MarbleSolitaireModelState;
 
 /**
  * This class represents a TriangleSolitaireTextView. It offers all the operations
- * mandated by the MarbleSolitaireView interface.
+ * mandated by the MarbleSolitaireView interface. Every render writes into
+ * one buffer kept by the view, sized to the exact length of the board text,
+ * so rendering allocates nothing once the buffer exists.
  */
 public class TriangleSolitaireTextView extends AbstractSolitaireView
         implements MarbleSolitaireView {
+  // buffer the board is written into on every render, kept by the view
+  private StringBuilder buffer;
+  // padding to take the leading spaces of the rows from
+  private char[] spaces;
+  // text of the row being written into the buffer
+  private char[] rowText;
 
   /**
    * Constructs a TriangleSolitaireTextView object with the provided
@@ -33,6 +44,23 @@ public class TriangleSolitaireTextView extends AbstractSolitaireView
     super(s, out);
   }
 
+  /**
+   * Constructs a TriangleSolitaireTextView object with the provided
+   * MarbleSolitaireModelState and Appendable, whose output is collected in
+   * a buffer of the given size and only passed on to the Appendable when the
+   * buffer is full or flushed.
+   *
+   * @param s The MarbleSolitaireModelState object representing the game.
+   * @param out The Appendable object representing the state and any message
+   *            of the game.
+   * @param bufferSize the number of characters to collect at most.
+   * @throws IllegalArgumentException if the provided model is null or the
+   *     buffer size is not positive.
+   */
+  public TriangleSolitaireTextView(MarbleSolitaireModelState s, Appendable out, int bufferSize) {
+    super(s, out, bufferSize);
+  }
+
   /**
    * Returns a string representation of the current Triangular Solitaire game
    * state. The string represents the game board. Each slot on the game
@@ -47,32 +75,72 @@ public class TriangleSolitaireTextView extends AbstractSolitaireView
    */
   @Override
   public String toString() {
+    return renderText().toString();
+  }
+
+  // helper method that renders the board straight from the reused buffer.
+  @Override
+  protected void renderWholeBoard() throws IOException {
+    this.out.append(renderText());
+  }
+
+  // helper method that writes the text of the board into the buffer of this
+  // view, which is sized to the exact text length once per board size.
+  private StringBuilder renderText() {
     int size = this.marbleS.getBoardSize();
-    StringBuilder sb = new StringBuilder();
+    fitBoardSize(size);
+    if (buffer == null) {
+      // row r has size - r - 1 spaces of padding and r + 1 slots with a
+      // space between each, every row but the first follows a new line
+      buffer = new StringBuilder(Math.max(size * (size - 1) / 2 + size * size + size - 1, 0));
+    }
+    buffer.setLength(0);
     for (int r = 0; r < size; r++) {
       if (r > 0) {
-        sb.append("\n");
+        buffer.append('\n');
+      }
+      buffer.append(rowText, 0, writeRow(r, rowText));
+    }
+    return buffer;
+  }
+
+  // helper method that makes the padding and the row of this view fit the
+  // given board size, dropping the buffer sized for another board.
+  private void fitBoardSize(int size) {
+    if (spaces == null || spaces.length != Math.max(size - 1, 0)) {
+      spaces = new char[Math.max(size - 1, 0)];
+      Arrays.fill(spaces, ' ');
+      rowText = new char[2 * size];
+      buffer = null;
+    }
+  }
+
+  // helper method that writes one row of the board, its padding followed
+  // by its slots separated by spaces.
+  @Override
+  protected int writeRow(int row, char[] line) {
+    int size = this.marbleS.getBoardSize();
+    fitBoardSize(size);
+    int length = size - row - 1;
+    System.arraycopy(spaces, 0, line, 0, length);
+    for (int c = 0; c <= row; c++) {
+      if (c > 0) {
+        line[length++] = ' ';
       }
-      sb.append(" ".repeat(size - r - 1));
-      for (int c = 0; c <= r; c++) {
-        if (c > 0) {
-          sb.append(" ");
-        }
-        MarbleSolitaireModelState.SlotState marble = this.marbleS.getSlotAt(r, c);
-        switch (marble) {
-          case Empty:
-            sb.append("_");
-            break;
-          case Marble:
-            sb.append("O");
-            break;
+      MarbleSolitaireModelState.SlotState marble = this.marbleS.getSlotAt(row, c);
+      switch (marble) {
+        case Empty:
+          line[length++] = '_';
+          break;
+        case Marble:
+          line[length++] = 'O';
+          break;
 
-          // No action intended for this case
-          default:
-            break;
-        }
+        // No action intended for this case
+        default:
+          break;
       }
     }
-    return sb.toString();
+    return length;
   }
 }
@@ -0,0 +1,203 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
+import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.view.MarbleSolitaireTextView;
+import game.marblesolitaire.view.TriangleSolitaireTextView;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the BitboardSolitaireModel class.
+ */
+public class BitboardSolitaireTest {
+  private MarbleSolitaireModel english;
+  private MarbleSolitaireModel european;
+  private MarbleSolitaireModel triangle;
+
+  @Before
+  public void setUp() {
+    english = new BitboardSolitaireModel(new EnglishSolitaireModel());
+    european = new BitboardSolitaireModel(new EuropeanSolitaireModel());
+    triangle = new BitboardSolitaireModel(new TriangleSolitaireModel());
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNullModel() {
+    new BitboardSolitaireModel(null);
+  }
+
+  @Test
+  public void testInitialState() {
+    assertEquals(7, english.getBoardSize());
+    assertEquals(32, english.getScore());
+    assertEquals(7, european.getBoardSize());
+    assertEquals(36, european.getScore());
+    assertEquals(5, triangle.getBoardSize());
+    assertEquals(14, triangle.getScore());
+
+    assertEquals(MarbleSolitaireModelState.SlotState.Invalid, english.getSlotAt(0, 0));
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, english.getSlotAt(3, 3));
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, european.getSlotAt(1, 1));
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, triangle.getSlotAt(0, 0));
+    assertEquals(MarbleSolitaireModelState.SlotState.Invalid, triangle.getSlotAt(0, 1));
+
+    assertEquals("    O O O\n"
+            + "    O O O\n"
+            + "O O O O O O O\n"
+            + "O O O _ O O O\n"
+            + "O O O O O O O\n"
+            + "    O O O\n"
+            + "    O O O", new MarbleSolitaireTextView(english).toString());
+    assertEquals("    _\n"
+            + "   O O\n"
+            + "  O O O\n"
+            + " O O O O\n"
+            + "O O O O O", new TriangleSolitaireTextView(triangle).toString());
+  }
+
+  @Test
+  public void testSlotOutOfBound() {
+    assertThrows(IllegalArgumentException.class, () -> english.getSlotAt(-1, 3));
+    assertThrows(IllegalArgumentException.class, () -> english.getSlotAt(3, 7));
+    assertThrows(IllegalArgumentException.class, () -> triangle.getSlotAt(5, 0));
+  }
+
+  @Test
+  public void testMove() {
+    english.move(1, 3, 3, 3);
+    assertEquals(31, english.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, english.getSlotAt(1, 3));
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, english.getSlotAt(2, 3));
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, english.getSlotAt(3, 3));
+
+    triangle.move(2, 2, 0, 0);
+    assertEquals(13, triangle.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, triangle.getSlotAt(0, 0));
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, triangle.getSlotAt(1, 1));
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, triangle.getSlotAt(2, 2));
+  }
+
+  @Test
+  public void testInvalidMove() {
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+            english.move(0, 0, 0, 2));
+    assertEquals("Invalid move position.", e.getMessage());
+    e = assertThrows(IllegalArgumentException.class, () ->
+            english.move(3, 3, 3, 1));
+    assertEquals("Not valid move.", e.getMessage());
+    e = assertThrows(IllegalArgumentException.class, () ->
+            english.move(3, 5, 3, 2));
+    assertEquals("Not valid move.", e.getMessage());
+    assertThrows(IllegalArgumentException.class, () -> english.move(1, 1, 3, 3));
+    assertThrows(IllegalArgumentException.class, () -> european.move(1, 1, 3, 3));
+    assertEquals(32, english.getScore());
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    MarbleSolitaireModel grid = new EnglishSolitaireModel();
+    MarbleSolitaireModel bits = new BitboardSolitaireModel(grid);
+    MarbleSolitaireModel copy = new BitboardSolitaireModel(bits);
+    bits.move(3, 1, 3, 3);
+    assertEquals(32, grid.getScore());
+    assertEquals(31, bits.getScore());
+    assertEquals(32, copy.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, copy.getSlotAt(3, 3));
+    assertArrayEquals(legalMoves(grid), legalMoves(copy));
+
+    // a copy made after moves starts with the same legal moves and keeps them apart
+    MarbleSolitaireModel later = new BitboardSolitaireModel(bits);
+    assertArrayEquals(legalMoves(bits), legalMoves(later));
+    later.move(1, 2, 3, 2);
+    assertEquals(3, legalMoves(bits).length);
+    assertEquals(5, legalMoves(later).length);
+  }
+
+  @Test
+  public void testRandomGamesMatchGridModels() {
+    Random random = new Random(42);
+    for (int game = 0; game < 30; game++) {
+      playAlongside(new EnglishSolitaireModel(), random);
+      playAlongside(new EuropeanSolitaireModel(), random);
+      playAlongside(new TriangleSolitaireModel(6), random);
+      playAlongside(new EnglishSolitaireModel(5), random);
+    }
+  }
+
+  @Test
+  public void testGameOver() {
+    MarbleSolitaireModel one = new BitboardSolitaireModel(new EnglishSolitaireModel(1));
+    assertEquals(0, one.getScore());
+    assertTrue(one.isGameOver());
+    assertFalse(english.isGameOver());
+  }
+
+  // returns the sorted legal moves of the given model.
+  private int[] legalMoves(MarbleSolitaireModel model) {
+    int[] moves = new int[model.getLegalMoves(new int[0])];
+    assertEquals(moves.length, model.getLegalMoves(moves));
+    Arrays.sort(moves);
+    return moves;
+  }
+
+  // plays random moves on a grid model and its bitboard copy and checks
+  // that both agree on every slot, the score, the hash and game over, also
+  // after moves are undone and redone.
+  private void playAlongside(MarbleSolitaireModel grid, Random random) {
+    MarbleSolitaireModel bits = new BitboardSolitaireModel(grid);
+    int size = grid.getBoardSize();
+    int[] offsets = {-2, 0, 2};
+    while (!grid.isGameOver()) {
+      assertFalse(bits.isGameOver());
+      int fromRow = random.nextInt(size);
+      int fromCol = random.nextInt(size);
+      int toRow = fromRow + offsets[random.nextInt(3)];
+      int toCol = fromCol + offsets[random.nextInt(3)];
+      boolean gridMoved;
+      try {
+        grid.move(fromRow, fromCol, toRow, toCol);
+        gridMoved = true;
+      } catch (IllegalArgumentException e) {
+        gridMoved = false;
+      }
+      try {
+        bits.move(fromRow, fromCol, toRow, toCol);
+        assertTrue(gridMoved);
+      } catch (IllegalArgumentException e) {
+        assertFalse(gridMoved);
+      }
+      assertEquals(grid.getScore(), bits.getScore());
+      assertEquals(grid.getPositionHash(), bits.getPositionHash());
+      assertArrayEquals(legalMoves(grid), legalMoves(bits));
+      if (gridMoved && random.nextInt(4) == 0) {
+        assertTrue(grid.undo());
+        assertTrue(bits.undo());
+        assertEquals(grid.getPositionHash(), bits.getPositionHash());
+        assertArrayEquals(legalMoves(grid), legalMoves(bits));
+        if (random.nextBoolean()) {
+          assertTrue(grid.redo());
+          assertTrue(bits.redo());
+        }
+      }
+    }
+    assertTrue(bits.isGameOver());
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        assertEquals(grid.getSlotAt(r, c), bits.getSlotAt(r, c));
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.single.MoveEncoding;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
+import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.solver.DepthFirstSolver;
+import game.marblesolitaire.solver.HashTranspositionTable;
+import game.marblesolitaire.solver.MarbleSolitaireSolver;
+import game.marblesolitaire.solver.PagodaFunction;
+import game.marblesolitaire.solver.PagodaLibrary;
+import game.marblesolitaire.solver.TranspositionTable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the DepthFirstSolver class.
+ */
+public class DepthFirstSolverTest {
+
+  @Test
+  public void testEnglishCenter() {
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    MarbleSolitaireSolver solver = new DepthFirstSolver(model, 3, 3);
+    assertTrue(solver.isSolvable());
+    int[] moves = solver.solve();
+    assertEquals(31, moves.length);
+    replay(model, moves);
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, model.getSlotAt(3, 3));
+  }
+
+  @Test
+  public void testModelIsNotChanged() {
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    new DepthFirstSolver(model).solve();
+    assertEquals(32, model.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, model.getSlotAt(3, 3));
+  }
+
+  @Test
+  public void testTriangle() {
+    MarbleSolitaireModel model = new TriangleSolitaireModel();
+    int[] moves = new DepthFirstSolver(model).solve();
+    assertEquals(13, moves.length);
+    replay(model, moves);
+  }
+
+  @Test
+  public void testEuropeanOffCenter() {
+    MarbleSolitaireModel model = new EuropeanSolitaireModel(1, 3);
+    int[] moves = new DepthFirstSolver(model).solve();
+    replay(model, moves);
+  }
+
+  @Test
+  public void testUnsolvable() {
+    // the last marble of a triangle started at the top can never end on (2, 1)
+    MarbleSolitaireSolver solver = new DepthFirstSolver(new TriangleSolitaireModel(), 2, 1);
+    assertFalse(solver.isSolvable());
+    assertThrows(IllegalStateException.class, solver::solve);
+
+    assertFalse(new DepthFirstSolver(new EnglishSolitaireModel(1)).isSolvable());
+  }
+
+  @Test
+  public void testInvalidTarget() {
+    assertThrows(IllegalArgumentException.class, () ->
+            new DepthFirstSolver(new EnglishSolitaireModel(), 0, 0));
+    assertThrows(IllegalArgumentException.class, () ->
+            new DepthFirstSolver(new EnglishSolitaireModel(), 7, 3));
+    assertThrows(IllegalArgumentException.class, () ->
+            new DepthFirstSolver(null));
+  }
+
+  @Test
+  public void testTranspositionTable() {
+    TranspositionTable table = new HashTranspositionTable(2);
+    assertTrue(table.add(new long[] {1, 2}));
+    assertFalse(table.add(new long[] {1, 2}));
+    assertTrue(table.add(new long[] {0, 0}));
+    assertFalse(table.add(new long[] {0, 0}));
+    for (long i = 0; i < 5000; i++) {
+      table.add(new long[] {i, i * 31});
+    }
+    assertEquals(5001, table.size());
+    assertTrue(table.contains(new long[] {1, 2}));
+    assertTrue(table.contains(new long[] {4999, 4999 * 31}));
+    assertFalse(table.contains(new long[] {2, 1}));
+  }
+
+  @Test
+  public void testSymmetryOffCenter() {
+    // a start on the bottom row is kept only by the identity, but the search
+    // still shares entries with the reflection that keeps the target in place
+    MarbleSolitaireModel model = new TriangleSolitaireModel(5, 4, 1);
+    DepthFirstSolver solver = new DepthFirstSolver(model, 3, 2);
+    assertFalse(solver.isSolvable());
+    // the search fails, so without symmetries every position it reaches
+    // through the jumps the pagoda functions allow would take an entry
+    BitboardSolitaireModel start = new BitboardSolitaireModel(model);
+    BitboardLayout layout = start.getLayout();
+    PagodaFunction[] pagodas = PagodaLibrary.forTarget(layout, layout.getCell(3, 2));
+    Set<Long> reached = new HashSet<>();
+    reach(layout, pagodas, layout.getCell(3, 2), start.getPosition()[0], reached);
+    assertTrue(solver.getFailedCount() < reached.size());
+    assertTrue(2 * solver.getFailedCount() >= reached.size());
+  }
+
+  // replays the moves of a solution on the model and checks that it ends
+  // with a single marble.
+  private void replay(MarbleSolitaireModel model, int[] moves) {
+    for (int move : moves) {
+      model.move(MoveEncoding.fromRow(move), MoveEncoding.fromCol(move),
+              MoveEncoding.toRow(move), MoveEncoding.toCol(move));
+    }
+    assertEquals(1, model.getScore());
+  }
+
+  // adds the given position and every position of more than one marble it
+  // leads to by jumps that keep every pagoda function at or above the
+  // weight of the target.
+  private void reach(BitboardLayout layout, PagodaFunction[] pagodas, int target,
+                     long position, Set<Long> reached) {
+    if (Long.bitCount(position) < 2 || !reached.add(position)) {
+      return;
+    }
+    long[] words = {position};
+    for (int j = 0; j < layout.getJumpCount(); j++) {
+      boolean allowed = layout.canJump(words, j);
+      for (PagodaFunction pagoda : pagodas) {
+        allowed &= pagoda.valueOf(words) + pagoda.getJumpChange(j)
+                >= pagoda.getWeight(target);
+      }
+      if (allowed) {
+        reach(layout, pagodas, target, position ^ 1L << layout.getJumpFrom(j)
+                ^ 1L << layout.getJumpOver(j) ^ 1L << layout.getJumpTo(j), reached);
+      }
+    }
+  }
+}
@@ -0,0 +1,165 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.single.MoveEncoding;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
+import game.marblesolitaire.solver.DepthFirstSolver;
+import game.marblesolitaire.solver.EndgameTablebase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the EndgameTablebase class.
+ */
+public class EndgameTablebaseTest {
+  private static final BitboardLayout ENGLISH = layout(new EnglishSolitaireModel());
+
+  @Test
+  public void testSmallPositions() {
+    int center = ENGLISH.getCell(3, 3);
+    EndgameTablebase endgame = EndgameTablebase.build(ENGLISH, center, 3);
+    assertEquals(3, endgame.getMaxMarbles());
+    assertTrue(endgame.contains(position(ENGLISH, 3, 3)));
+    assertFalse(endgame.contains(position(ENGLISH, 2, 3)));
+    // one jump to the center, from any of the four sides
+    assertTrue(endgame.contains(position(ENGLISH, 1, 3, 2, 3)));
+    assertTrue(endgame.contains(position(ENGLISH, 3, 5, 3, 4)));
+    assertFalse(endgame.contains(position(ENGLISH, 0, 3, 1, 3)));
+    // two jumps, the second over the marble the first landed on
+    assertTrue(endgame.contains(position(ENGLISH, 1, 3, 2, 1, 2, 2)));
+    assertFalse(endgame.contains(position(ENGLISH, 3, 1, 2, 2, 3, 2)));
+
+    // every solvable position of up to four marbles and no other
+    EndgameTablebase four = EndgameTablebase.build(ENGLISH, center, 4);
+    assertEquals(checkSolvable(four, new long[1], 0, 4, center), four.size());
+
+    EndgameTablebase anywhere = EndgameTablebase.build(ENGLISH, -1, 1);
+    assertEquals(33, anywhere.size());
+    assertTrue(anywhere.contains(position(ENGLISH, 0, 2)));
+  }
+
+  @Test
+  public void testSolverStopsEarly() {
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    EndgameTablebase endgame = EndgameTablebase.build(ENGLISH, ENGLISH.getCell(3, 3), 8);
+    DepthFirstSolver withEndgame = new DepthFirstSolver(model, 3, 3, endgame);
+    DepthFirstSolver without = new DepthFirstSolver(model, 3, 3);
+    assertTrue(withEndgame.isSolvable());
+    assertTrue(without.isSolvable());
+    assertTrue(withEndgame.getFailedCount() < without.getFailedCount());
+
+    for (int move : withEndgame.solve()) {
+      model.move(MoveEncoding.fromRow(move), MoveEncoding.fromCol(move),
+              MoveEncoding.toRow(move), MoveEncoding.toCol(move));
+    }
+    assertEquals(1, model.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, model.getSlotAt(3, 3));
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    BitboardLayout european = layout(new EuropeanSolitaireModel());
+    EndgameTablebase endgame = EndgameTablebase.build(european, european.getCell(2, 3), 5);
+    Path file = Files.createTempFile("endgame", ".tb");
+    try {
+      endgame.save(file);
+      EndgameTablebase loaded = EndgameTablebase.load(file);
+      assertEquals(endgame.size(), loaded.size());
+      assertEquals(5, loaded.getMaxMarbles());
+      assertTrue(loaded.covers(european, european.getCell(2, 3)));
+      assertFalse(loaded.covers(european, european.getCell(3, 3)));
+      assertFalse(loaded.covers(ENGLISH, ENGLISH.getCell(2, 3)));
+      assertTrue(loaded.contains(position(european, 2, 3)));
+      assertTrue(loaded.contains(position(european, 2, 5, 2, 4)));
+
+      EndgameTablebase mapped = EndgameTablebase.map(file);
+      assertEquals(endgame.size(), mapped.size());
+      assertTrue(mapped.covers(european, european.getCell(2, 3)));
+      assertTrue(mapped.contains(position(european, 2, 5, 2, 4)));
+      assertFalse(mapped.contains(position(european, 2, 4)));
+
+      Files.write(file, new byte[] {1, 2, 3, 4, 5});
+      assertThrows(IOException.class, () -> EndgameTablebase.load(file));
+      assertThrows(IOException.class, () -> EndgameTablebase.map(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> EndgameTablebase.build(null, 0, 3));
+    assertThrows(IllegalArgumentException.class, () -> EndgameTablebase.build(ENGLISH, 33, 3));
+    assertThrows(IllegalArgumentException.class, () -> EndgameTablebase.build(ENGLISH, 0, 0));
+    assertThrows(IllegalArgumentException.class, () ->
+            EndgameTablebase.build(layout(new EnglishSolitaireModel(5)), 0, 3));
+
+    EndgameTablebase endgame = EndgameTablebase.build(ENGLISH, ENGLISH.getCell(3, 3), 2);
+    assertThrows(IllegalArgumentException.class, () ->
+            new DepthFirstSolver(new EnglishSolitaireModel(), 2, 3, endgame));
+    assertThrows(IllegalArgumentException.class, () ->
+            new DepthFirstSolver(new EnglishSolitaireModel(), 3, 3, null));
+  }
+
+  // returns the layout of the board of the given model.
+  private static BitboardLayout layout(MarbleSolitaireModel model) {
+    return new BitboardSolitaireModel(model).getLayout();
+  }
+
+  // returns the position with marbles on the given rows and columns.
+  private static long[] position(BitboardLayout layout, int... slots) {
+    long[] position = new long[1];
+    for (int i = 0; i < slots.length; i += 2) {
+      position[0] |= 1L << layout.getCell(slots[i], slots[i + 1]);
+    }
+    return position;
+  }
+
+  // checks that every solvable position made of the given position and up
+  // to the given number of marbles more, on slots from the given one on, is
+  // in the tablebase, and returns the number of them.
+  private static int checkSolvable(EndgameTablebase endgame, long[] position, int first,
+                                   int marbles, int target) {
+    int solvable = 0;
+    for (int cell = first; cell < 33 && marbles > 0; cell++) {
+      position[0] |= 1L << cell;
+      if (isSolvable(position, target)) {
+        assertTrue(endgame.contains(position));
+        solvable++;
+      }
+      solvable += checkSolvable(endgame, position, cell + 1, marbles - 1, target);
+      position[0] &= ~(1L << cell);
+    }
+    return solvable;
+  }
+
+  // determines by trying every jump if the position can end with a single
+  // marble on the target.
+  private static boolean isSolvable(long[] position, int target) {
+    if (Long.bitCount(position[0]) == 1) {
+      return position[0] == 1L << target;
+    }
+    for (int j = 0; j < ENGLISH.getJumpCount(); j++) {
+      if (ENGLISH.canJump(position, j)) {
+        ENGLISH.flipJump(position, j);
+        boolean solved = isSolvable(position, target);
+        ENGLISH.flipJump(position, j);
+        if (solved) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -1,13 +1,16 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import game.marblesolitaire.model.single.EnglishSolitaireModel;
 import game.marblesolitaire.model.single.MarbleSolitaireModel;
 import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.single.MoveEncoding;
 import game.marblesolitaire.view.MarbleSolitaireTextView;
 import game.marblesolitaire.view.MarbleSolitaireView;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
@@ -281,6 +284,115 @@ public class EnglishSolitaireTest {
     four.move(0,5,0,3);
   }
 
+  @Test
+  public void testIsLegalMove() {
+    assertTrue(one.isLegalMove(1, 3, 3, 3));
+    assertTrue(one.isLegalMove(3, 1, 3, 3));
+    assertFalse(one.isLegalMove(3, 3, 3, 5));
+    assertFalse(one.isLegalMove(1, 3, 4, 3));
+    assertFalse(one.isLegalMove(1, 3, 3, 5));
+    assertFalse(one.isLegalMove(2, 2, 2, 4));
+    assertFalse(two.isLegalMove(2, 5, 2, 7));
+    assertFalse(two.isLegalMove(-1, 2, 1, 2));
+    assertFalse(four.isLegalMove(0, 3, 0, 5));
+    assertEquals(32, one.getScore());
+  }
+
+  @Test
+  public void testTryMove() {
+    assertFalse(one.tryMove(3, 3, 3, 5));
+    assertFalse(two.tryMove(2, 7, 2, 5));
+    assertEquals(32, one.getScore());
+    assertTrue(one.tryMove(1, 3, 3, 3));
+    assertEquals(31, one.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, one.getSlotAt(1, 3));
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, one.getSlotAt(2, 3));
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, one.getSlotAt(3, 3));
+    assertFalse(one.tryMove(1, 3, 3, 3));
+    assertEquals(31, one.getScore());
+  }
+
+  @Test
+  public void testGetLegalMoves() {
+    int[] moves = new int[8];
+    assertEquals(4, one.getLegalMoves(moves));
+    int[] expected = {MoveEncoding.encode(1, 3, 3, 3), MoveEncoding.encode(5, 3, 3, 3),
+        MoveEncoding.encode(3, 1, 3, 3), MoveEncoding.encode(3, 5, 3, 3)};
+    Arrays.sort(expected);
+    int[] actual = Arrays.copyOf(moves, 4);
+    Arrays.sort(actual);
+    assertArrayEquals(expected, actual);
+
+    for (int move : actual) {
+      assertEquals(3, MoveEncoding.toRow(move));
+      assertEquals(3, MoveEncoding.toCol(move));
+      assertTrue(one.isLegalMove(MoveEncoding.fromRow(move), MoveEncoding.fromCol(move),
+              MoveEncoding.toRow(move), MoveEncoding.toCol(move)));
+    }
+
+    // a small buffer still reports every move
+    int[] small = new int[1];
+    assertEquals(4, one.getLegalMoves(small));
+    assertEquals(0, three.getLegalMoves(moves));
+
+    one.move(1, 3, 3, 3);
+    assertEquals(3, one.getLegalMoves(moves));
+  }
+
+  @Test
+  public void testPositionHash() {
+    MarbleSolitaireModel other = new EnglishSolitaireModel();
+    assertEquals(one.getPositionHash(), other.getPositionHash());
+    assertFalse(one.getPositionHash() == three.getPositionHash());
+
+    // the same position reached by two orders of moves has the same hash
+    one.move(1, 3, 3, 3);
+    one.move(2, 1, 2, 3);
+    other.move(1, 3, 3, 3);
+    other.move(2, 1, 2, 3);
+    one.move(2, 4, 2, 2);
+    one.move(4, 1, 2, 1);
+    assertFalse(one.getPositionHash() == other.getPositionHash());
+    other.move(4, 1, 2, 1);
+    other.move(2, 4, 2, 2);
+    assertEquals(one.getPositionHash(), other.getPositionHash());
+
+    // a failed move leaves the hash alone
+    long before = one.getPositionHash();
+    assertFalse(one.tryMove(3, 3, 3, 5));
+    assertEquals(before, one.getPositionHash());
+  }
+
+  @Test
+  public void testUndoRedo() {
+    assertFalse(one.undo());
+    assertFalse(one.redo());
+    long start = one.getPositionHash();
+    one.move(1, 3, 3, 3);
+    one.move(2, 1, 2, 3);
+    assertTrue(one.undo());
+    assertEquals(31, one.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, one.getSlotAt(2, 1));
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, one.getSlotAt(2, 2));
+    assertEquals(MarbleSolitaireModelState.SlotState.Empty, one.getSlotAt(2, 3));
+    assertTrue(one.undo());
+    assertFalse(one.undo());
+    assertEquals(32, one.getScore());
+    assertEquals(start, one.getPositionHash());
+    assertEquals(4, one.getLegalMoves(new int[0]));
+
+    assertTrue(one.redo());
+    assertTrue(one.redo());
+    assertFalse(one.redo());
+    assertEquals(30, one.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, one.getSlotAt(2, 3));
+
+    // a new move drops the moves left to redo
+    one.undo();
+    one.move(4, 3, 2, 3);
+    assertFalse(one.redo());
+  }
+
   @Test
   public void testMoveOver() {
 
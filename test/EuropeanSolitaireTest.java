@@ -5,6 +5,7 @@ import java.util.Random;
 
 import game.marblesolitaire.model.single.MarbleSolitaireModel;
 import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
 import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
 import game.marblesolitaire.view.MarbleSolitaireTextView;
 import game.marblesolitaire.view.MarbleSolitaireView;
@@ -186,6 +187,68 @@ public class EuropeanSolitaireTest {
             four.getSlotAt(1,3));
   }
 
+  @Test
+  public void testViewFollowsMoves() throws Exception {
+    StringBuilder out = new StringBuilder();
+    MarbleSolitaireView view = new MarbleSolitaireTextView(one, out);
+    String start = view.toString();
+    view.renderBoard();
+    one.move(1, 3, 3, 3);
+    one.move(2, 1, 2, 3);
+    String moved = "    O O O\n"
+            + "  O O _ O O\n"
+            + "O _ _ O O O O\n"
+            + "O O O O O O O\n"
+            + "O O O O O O O\n"
+            + "  O O O O O\n"
+            + "    O O O";
+    assertEquals(moved, view.toString());
+    view.renderBoard();
+    one.undo();
+    String undone = new MarbleSolitaireTextView(one).toString();
+    assertEquals(undone, view.toString());
+    view.renderBoard();
+    assertEquals(start + moved + undone, out.toString());
+  }
+
+  @Test
+  public void testStreamedRender() throws Exception {
+    MarbleSolitaireModel large = new EuropeanSolitaireModel(35);
+    assertEquals(103, large.getBoardSize());
+    large.move(49, 51, 51, 51);
+    StringBuilder out = new StringBuilder();
+    MarbleSolitaireView view = new MarbleSolitaireTextView(large, out);
+    view.renderBoard();
+    String text = out.toString();
+    assertEquals(view.toString(), text);
+    assertTrue(text.startsWith(" ".repeat(68) + "O O O"));
+    assertEquals(103, text.split("\n").length);
+  }
+
+  @Test
+  public void testViewFollowsManyChanges() throws Exception {
+    MarbleSolitaireView view = new MarbleSolitaireTextView(one, new StringBuilder());
+    view.renderBoard();
+    // more changes between two renders than the view reads at a time
+    one.move(1, 3, 3, 3);
+    for (int i = 0; i < 6; i++) {
+      one.undo();
+      one.redo();
+    }
+    one.move(2, 1, 2, 3);
+    assertEquals(new MarbleSolitaireTextView(one).toString(), view.toString());
+
+    // a bitboard model gives its changes as encoded moves too
+    BitboardSolitaireModel bits = new BitboardSolitaireModel(one);
+    MarbleSolitaireView bitsView = new MarbleSolitaireTextView(bits, new StringBuilder());
+    bitsView.renderBoard();
+    bits.move(4, 1, 2, 1);
+    bits.undo();
+    bits.redo();
+    one.move(4, 1, 2, 1);
+    assertEquals(new MarbleSolitaireTextView(one).toString(), bitsView.toString());
+  }
+
   @Test
   public void testSize() {
     assertEquals(7, one.getBoardSize());
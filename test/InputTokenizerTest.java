@@ -0,0 +1,77 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+
+import game.marblesolitaire.controller.InputTokenizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * A JUnit test class for the InputTokenizer class.
+ */
+public class InputTokenizerTest {
+
+  @Test
+  public void testTokens() {
+    InputTokenizer tokens = new InputTokenizer(new StringReader(
+            "  4 +7\t-3\n0012 q Q qq x4 - + 2147483647 2147483648 -2147483648 \u0663"));
+    assertNumber(4, tokens);
+    assertNumber(7, tokens);
+    assertNumber(-3, tokens);
+    assertNumber(12, tokens);
+    assertEquals(InputTokenizer.Kind.Quit, tokens.next());
+    assertEquals(InputTokenizer.Kind.Quit, tokens.next());
+    assertEquals(InputTokenizer.Kind.Other, tokens.next());
+    assertEquals(InputTokenizer.Kind.Other, tokens.next());
+    assertEquals(InputTokenizer.Kind.Other, tokens.next());
+    assertEquals(InputTokenizer.Kind.Other, tokens.next());
+    assertNumber(Integer.MAX_VALUE, tokens);
+    assertEquals(InputTokenizer.Kind.Other, tokens.next());
+    assertNumber(Integer.MIN_VALUE, tokens);
+    assertNumber(3, tokens);
+    assertEquals(InputTokenizer.Kind.End, tokens.next());
+    assertEquals(InputTokenizer.Kind.End, tokens.next());
+  }
+
+  @Test
+  public void testLongInput() {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      input.append(i).append(' ');
+    }
+    InputTokenizer tokens = new InputTokenizer(new StringReader(input.toString()));
+    for (int i = 0; i < 5000; i++) {
+      assertNumber(i, tokens);
+    }
+    assertEquals(InputTokenizer.Kind.End, tokens.next());
+  }
+
+  @Test
+  public void testFailingInput() {
+    InputTokenizer tokens = new InputTokenizer(new Readable() {
+      private boolean first = true;
+
+      @Override
+      public int read(CharBuffer cb) throws IOException {
+        if (first) {
+          first = false;
+          cb.append("5 ");
+          return 2;
+        }
+        throw new IOException("Fail!");
+      }
+    });
+    assertNumber(5, tokens);
+    assertEquals(InputTokenizer.Kind.End, tokens.next());
+    assertThrows(IllegalArgumentException.class, () -> new InputTokenizer(null));
+  }
+
+  // checks that the next token is the given number.
+  private void assertNumber(int expected, InputTokenizer tokens) {
+    assertEquals(InputTokenizer.Kind.Number, tokens.next());
+    assertEquals(expected, tokens.value());
+  }
+}
@@ -0,0 +1,112 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.solver.LayeredExplorer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the LayeredExplorer class.
+ */
+public class LayeredExplorerTest {
+
+  @Test
+  public void testCountsInMemory() throws IOException {
+    Path directory = Files.createTempDirectory("layers");
+    try {
+      MarbleSolitaireModel model = new TriangleSolitaireModel(6);
+      LayeredExplorer explorer = new LayeredExplorer(model, directory, 1 << 20);
+      assertArrayEquals(countByBruteForce(model), explorer.explore());
+      assertEquals(0, explorer.getSpillCount());
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  @Test
+  public void testCountsWithSpill() throws IOException {
+    Path directory = Files.createTempDirectory("layers");
+    try {
+      MarbleSolitaireModel model = new TriangleSolitaireModel(6, 2, 1);
+      LayeredExplorer explorer = new LayeredExplorer(model, directory, 64);
+      long[] counts = explorer.explore();
+      assertArrayEquals(countByBruteForce(model), counts);
+      assertTrue(explorer.getSpillCount() > 0);
+      assertEquals(1, counts[model.getScore()]);
+      // every run and layer file is deleted once merged
+      try (Stream<Path> files = Files.list(directory)) {
+        assertEquals(0, files.count());
+      }
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  @Test
+  public void testInvalid() throws IOException {
+    Path directory = Files.createTempDirectory("layers");
+    try {
+      assertThrows(IllegalArgumentException.class, () ->
+              new LayeredExplorer(new EnglishSolitaireModel(), null, 1024));
+      assertThrows(IllegalArgumentException.class, () ->
+              new LayeredExplorer(new EnglishSolitaireModel(), directory, 15));
+      assertThrows(IllegalArgumentException.class, () ->
+              new LayeredExplorer(new EnglishSolitaireModel(5), directory, 1024));
+      assertThrows(IllegalArgumentException.class, () ->
+              new LayeredExplorer(null, directory, 1024));
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  // counts the reachable positions by their number of marbles with a
+  // depth-first walk over a set of every position seen.
+  private static long[] countByBruteForce(MarbleSolitaireModel model) {
+    BitboardSolitaireModel bitboard = new BitboardSolitaireModel(model);
+    Set<Long> seen = new HashSet<>();
+    walk(bitboard.getLayout(), bitboard.getPosition(), seen);
+    long[] counts = new long[model.getScore() + 1];
+    for (long position : seen) {
+      counts[Long.bitCount(position)]++;
+    }
+    return counts;
+  }
+
+  // adds the position and every position reachable from it to the set.
+  private static void walk(BitboardLayout layout, long[] position, Set<Long> seen) {
+    if (!seen.add(position[0])) {
+      return;
+    }
+    for (int j = 0; j < layout.getJumpCount(); j++) {
+      if (layout.canJump(position, j)) {
+        layout.flipJump(position, j);
+        walk(layout, position, seen);
+        layout.flipJump(position, j);
+      }
+    }
+  }
+
+  // deletes the directory and the files left in it.
+  private static void deleteDirectory(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+}
@@ -0,0 +1,98 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.solver.DepthFirstSolver;
+import game.marblesolitaire.solver.MappedTranspositionTable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the MappedTranspositionTable class.
+ */
+public class MappedTranspositionTableTest {
+
+  @Test
+  public void testAddAndGrow() throws IOException {
+    Path file = Files.createTempFile("positions", ".table");
+    try (MappedTranspositionTable table = new MappedTranspositionTable(file, 2)) {
+      assertTrue(table.add(new long[] {1, 2}));
+      assertFalse(table.add(new long[] {1, 2}));
+      assertTrue(table.add(new long[] {0, 0}));
+      assertFalse(table.add(new long[] {0, 0}));
+      // far more positions than the first mapping holds
+      for (long i = 0; i < 100000; i++) {
+        table.add(new long[] {i, i * 31});
+      }
+      assertEquals(100001, table.size());
+      assertEquals(100001, table.longSize());
+      assertTrue(table.contains(new long[] {1, 2}));
+      assertTrue(table.contains(new long[] {0, 0}));
+      assertTrue(table.contains(new long[] {99999, 99999 * 31}));
+      assertFalse(table.contains(new long[] {2, 1}));
+      for (long i = 0; i < 100000; i++) {
+        assertTrue(table.contains(new long[] {i, i * 31}));
+      }
+      assertTrue(Files.size(file) > 100000 * 16);
+    }
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void testGrowInPlace() throws IOException {
+    Path dir = Files.createTempDirectory("positions");
+    Path file = dir.resolve("failed.table");
+    try (MappedTranspositionTable table = new MappedTranspositionTable(file, 1)) {
+      for (long i = 1; i <= 300000; i++) {
+        assertTrue(table.add(new long[] {i * 0x9E3779B97F4A7C15L}));
+      }
+      assertEquals(300000, table.size());
+      for (long i = 1; i <= 300000; i++) {
+        assertTrue(table.contains(new long[] {i * 0x9E3779B97F4A7C15L}));
+      }
+      assertFalse(table.contains(new long[] {-1}));
+      // the table grew within its own file, with no other file beside it
+      try (Stream<Path> files = Files.list(dir)) {
+        assertEquals(1, files.count());
+      }
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(dir);
+    }
+  }
+
+  @Test
+  public void testSolver() throws IOException {
+    Path file = Files.createTempFile("positions", ".table");
+    try (MappedTranspositionTable table = new MappedTranspositionTable(file, 1)) {
+      MarbleSolitaireModel model = new EnglishSolitaireModel();
+      DepthFirstSolver solver = new DepthFirstSolver(model, 3, 3, table, null);
+      assertTrue(solver.isSolvable());
+      assertEquals(31, solver.solve().length);
+      DepthFirstSolver onHeap = new DepthFirstSolver(model, 3, 3);
+      assertTrue(onHeap.isSolvable());
+      assertEquals(onHeap.getFailedCount(), table.size());
+    }
+  }
+
+  @Test
+  public void testInvalid() throws IOException {
+    Path file = Files.createTempFile("positions", ".table");
+    try {
+      assertThrows(IllegalArgumentException.class, () -> new MappedTranspositionTable(null, 1));
+      assertThrows(IllegalArgumentException.class, () -> new MappedTranspositionTable(file, 0));
+      assertThrows(IllegalArgumentException.class, () ->
+              new DepthFirstSolver(new EnglishSolitaireModel(), 3, 3, null, null));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
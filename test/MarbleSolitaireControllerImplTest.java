@@ -5,14 +5,18 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.Arrays;
 
+import game.marblesolitaire.controller.InputTokenizer;
 import game.marblesolitaire.controller.MarbleSolitaireController;
 import game.marblesolitaire.controller.MarbleSolitaireControllerImpl;
+import game.marblesolitaire.controller.RenderPolicy;
 import game.marblesolitaire.model.single.EnglishSolitaireModel;
 import game.marblesolitaire.model.single.MarbleSolitaireModel;
 import game.marblesolitaire.view.MarbleSolitaireTextView;
 import game.marblesolitaire.view.MarbleSolitaireView;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -1207,4 +1211,163 @@ public class MarbleSolitaireControllerImplTest {
             "    O _ O\n" +
             "Score: 26", gameLog.toString());
   }
+
+  @Test
+  public void testPlayScript() {
+    MarbleSolitaireControllerImpl controller = new MarbleSolitaireControllerImpl(one,
+            view1, new StringReader(""));
+    // the second move is not possible and is skipped
+    assertEquals(2, controller.playScript(new int[] {2, 4, 4, 4, 4, 4, 4, 6, 3, 2, 3, 4,
+        0, 4, 2, 4}));
+    assertEquals(30, one.getScore());
+    assertEquals("", gameLog.toString());
+    assertEquals(0, controller.playScript(new int[0]));
+    assertThrows(IllegalArgumentException.class, () -> controller.playScript(null));
+    assertThrows(IllegalArgumentException.class, () ->
+            controller.playScript(new int[] {2, 4, 4}));
+  }
+
+  @Test
+  public void testRenderPolicy() {
+    String moves = "2 4 4 4 5 4 3 4 7 4 5 4 4 2 4 4 q";
+    assertEquals(6, scoresShown(RenderPolicy.everyMove(), moves));
+    assertEquals(4, scoresShown(RenderPolicy.everyMoves(2), moves));
+    assertEquals(3, scoresShown(RenderPolicy.everyMoves(3), moves));
+    assertEquals(2, scoresShown(RenderPolicy.onlyAtEnd(), moves));
+    assertEquals(2, scoresShown(RenderPolicy.throttled(60_000), moves));
+    assertEquals(6, scoresShown(RenderPolicy.throttled(0), moves));
+
+    // the end of the game is always shown in full
+    StringBuilder log = new StringBuilder();
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    new MarbleSolitaireControllerImpl(model, new MarbleSolitaireTextView(model, log),
+            new StringReader(moves), RenderPolicy.onlyAtEnd()).playGame();
+    assertTrue(log.toString().endsWith("Game quit!\nState of game when quit:\n"
+            + new MarbleSolitaireTextView(model) + "\nScore: 28"));
+
+    assertThrows(IllegalArgumentException.class, () -> RenderPolicy.everyMoves(0));
+    assertThrows(IllegalArgumentException.class, () -> RenderPolicy.throttled(-1));
+    assertThrows(IllegalArgumentException.class, () ->
+            new MarbleSolitaireControllerImpl(one, view1, new StringReader(""), null));
+  }
+
+  @Test
+  public void testRenderPolicyInvalidMoves() {
+    // four moves made and two that are not possible, which are not counted
+    String moves = "2 4 4 4 1 1 2 2 5 4 3 4 1 4 1 4 7 4 5 4 4 2 4 4 q";
+    assertEquals(4, scoresShown(RenderPolicy.everyMoves(2), moves));
+    assertEquals(8, scoresShown(RenderPolicy.everyMove(), moves));
+
+    StringBuilder log = new StringBuilder();
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    new MarbleSolitaireControllerImpl(model, new MarbleSolitaireTextView(model, log),
+            new StringReader(moves), RenderPolicy.everyMoves(2)).playGame();
+    String text = log.toString();
+    assertEquals(2, text.split("Invalid move. Play again.", -1).length - 1);
+    assertTrue(text.contains("\nScore: 30\n"));
+    assertFalse(text.contains("\nScore: 31\n"));
+    assertFalse(text.contains("\nScore: 29\n"));
+    assertTrue(text.contains("\nScore: 28\n"));
+  }
+
+  // plays the given input with the given policy and returns how many times
+  // the score was shown.
+  private int scoresShown(RenderPolicy policy, String input) {
+    StringBuilder log = new StringBuilder();
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    new MarbleSolitaireControllerImpl(model, new MarbleSolitaireTextView(model, log),
+            new StringReader(input), policy).playGame();
+    return log.toString().split("Score:", -1).length - 1;
+  }
+
+  @Test
+  public void testBufferedView() throws IOException {
+    StringBuilder log = new StringBuilder();
+    MarbleSolitaireView view = new MarbleSolitaireTextView(one, log, 16);
+    view.renderMessage("Score: ");
+    view.renderMessage("32");
+    assertEquals("", log.toString());
+    view.flush();
+    assertEquals("Score: 32", log.toString());
+
+    // text that does not fit is passed on at once
+    view.renderMessage("\n");
+    view.renderBoard();
+    assertEquals("Score: 32\n" + view, log.toString());
+    view.flush();
+    assertEquals("Score: 32\n" + view, log.toString());
+
+    // a failure is only thrown by the render or flush that passes the text on
+    MarbleSolitaireView failing = new MarbleSolitaireTextView(one, new FailingAppendable(), 64);
+    failing.renderMessage("Fail");
+    IOException e = assertThrows(IOException.class, failing::flush);
+    assertEquals("Fail!", e.getMessage());
+    failing.renderMessage("Fail");
+    assertThrows(IOException.class, failing::renderBoard);
+
+    // a view that transmits as it renders need not implement flush
+    MarbleSolitaireView direct = new MarbleSolitaireView() {
+      @Override
+      public void renderBoard() throws IOException {
+        log.append("board");
+      }
+
+      @Override
+      public void renderMessage(String message) throws IOException {
+        log.append(message);
+      }
+    };
+    direct.flush();
+    assertThrows(IOException.class, () -> failing.renderMessage(null));
+    assertThrows(IllegalArgumentException.class, () ->
+            new MarbleSolitaireTextView(one, log, 0));
+  }
+
+  @Test
+  public void testBufferedController() {
+    String moves = "2 4 4 4 5 4 3 4 x 7 4 5 4 4 2 4 4 q";
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    StringBuilder buffered = new StringBuilder();
+    new MarbleSolitaireControllerImpl(model, new MarbleSolitaireTextView(model, buffered, 100),
+            new StringReader(moves)).playGame();
+    new MarbleSolitaireControllerImpl(one, view1, new StringReader(moves)).playGame();
+    assertEquals(gameLog.toString(), buffered.toString());
+
+    MarbleSolitaireModel other = new EnglishSolitaireModel();
+    IllegalStateException e = assertThrows(IllegalStateException.class, () ->
+            new MarbleSolitaireControllerImpl(other,
+                    new MarbleSolitaireTextView(other, new FailingAppendable(), 8192),
+                    new StringReader(moves)).playGame());
+    assertEquals("Fail to flush output.", e.getMessage());
+  }
+
+  @Test
+  public void testStep() {
+    String moves = "2 4 4 4 5 4 3 4 x -1 7 4 5 4 q";
+    new MarbleSolitaireControllerImpl(one, view1, new StringReader(moves)).playGame();
+
+    // handing over the tokens one at a time plays the same game
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    StringBuilder log = new StringBuilder();
+    MarbleSolitaireControllerImpl controller = new MarbleSolitaireControllerImpl(model,
+            new MarbleSolitaireTextView(model, log), new StringReader(""));
+    InputTokenizer tokens = new InputTokenizer();
+    controller.start();
+    for (char c : (moves + " ").toCharArray()) {
+      InputTokenizer.Kind kind = tokens.feed(c);
+      if (kind != null) {
+        assertEquals(!kind.equals(InputTokenizer.Kind.Quit), controller.step(kind, tokens.value()));
+      }
+    }
+    assertEquals(gameLog.toString(), log.toString());
+    assertFalse(controller.step(InputTokenizer.Kind.Number, 2));
+    controller.endOfInput();
+    assertEquals(gameLog.toString(), log.toString());
+
+    MarbleSolitaireControllerImpl unfinished = new MarbleSolitaireControllerImpl(
+            new EnglishSolitaireModel(), view1, new StringReader(""));
+    unfinished.start();
+    assertTrue(unfinished.step(InputTokenizer.Kind.Number, 2));
+    assertThrows(IllegalStateException.class, unfinished::endOfInput);
+  }
 }
@@ -17,11 +17,27 @@ public class MockMarbleSolitaireModel implements MarbleSolitaireModel {
             fromRow, fromCol, toRow, toCol));
   }
 
+  @Override
+  public boolean isLegalMove(int fromRow, int fromCol, int toRow, int toCol) {
+    return true;
+  }
+
+  @Override
+  public boolean tryMove(int fromRow, int fromCol, int toRow, int toCol) {
+    move(fromRow, fromCol, toRow, toCol);
+    return true;
+  }
+
   @Override
   public boolean isGameOver() {
     return false;
   }
 
+  @Override
+  public int getLegalMoves(int[] moves) {
+    return 0;
+  }
+
   @Override
   public int getBoardSize() {
     return 0;
@@ -32,8 +48,23 @@ public class MockMarbleSolitaireModel implements MarbleSolitaireModel {
     return null;
   }
 
+  @Override
+  public boolean undo() {
+    return false;
+  }
+
+  @Override
+  public boolean redo() {
+    return false;
+  }
+
   @Override
   public int getScore() {
     return 0;
   }
+
+  @Override
+  public long getPositionHash() {
+    return 0;
+  }
 }
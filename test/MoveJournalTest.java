@@ -0,0 +1,88 @@
+import org.junit.Test;
+
+import game.marblesolitaire.model.single.MoveJournal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the MoveJournal class.
+ */
+public class MoveJournalTest {
+
+  @Test
+  public void testUndoRedo() {
+    MoveJournal journal = new MoveJournal(4);
+    assertFalse(journal.canUndo());
+    assertFalse(journal.canRedo());
+    journal.record(1);
+    journal.record(2);
+    journal.record(3);
+    assertEquals(3, journal.undo());
+    assertEquals(2, journal.undo());
+    assertTrue(journal.canRedo());
+    assertEquals(2, journal.redo());
+    assertEquals(3, journal.redo());
+    assertFalse(journal.canRedo());
+
+    // a new move forgets the undone ones
+    journal.undo();
+    journal.record(4);
+    assertFalse(journal.canRedo());
+    assertEquals(4, journal.undo());
+    assertEquals(2, journal.undo());
+    assertEquals(1, journal.undo());
+    assertFalse(journal.canUndo());
+  }
+
+  @Test
+  public void testChanges() {
+    MoveJournal journal = new MoveJournal(4);
+    int[] moves = new int[2];
+    assertEquals(0, journal.getChangeCount());
+    assertEquals(0, journal.getChangesSince(0, moves));
+    journal.record(7);
+    journal.record(8);
+    journal.undo();
+    assertEquals(3, journal.getChangeCount());
+    // the undone move is given as it was recorded
+    assertEquals(2, journal.getChangesSince(1, moves));
+    assertEquals(8, moves[0]);
+    assertEquals(8, moves[1]);
+    // only as many moves as fit are written
+    assertEquals(3, journal.getChangesSince(0, moves));
+    assertEquals(7, moves[0]);
+
+    journal.redo();
+    journal.record(9);
+    assertEquals(5, journal.getChangeCount());
+    assertEquals(-1, journal.getChangesSince(0, moves));
+    assertEquals(-1, journal.getChangesSince(6, moves));
+    assertEquals(-1, journal.getChangesSince(-1, moves));
+  }
+
+  @Test
+  public void testFullJournalForgetsOldest() {
+    MoveJournal journal = new MoveJournal(4);
+    for (int move = 0; move < 10; move++) {
+      journal.record(move);
+    }
+    for (int move = 9; move >= 6; move--) {
+      assertEquals(move, journal.undo());
+    }
+    assertFalse(journal.canUndo());
+    assertEquals(6, journal.redo());
+  }
+
+  @Test
+  public void testInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> new MoveJournal(0));
+    MoveJournal journal = new MoveJournal(1);
+    IllegalStateException e = assertThrows(IllegalStateException.class, journal::undo);
+    assertEquals("No move to undo.", e.getMessage());
+    e = assertThrows(IllegalStateException.class, journal::redo);
+    assertEquals("No move to redo.", e.getMessage());
+  }
+}
@@ -0,0 +1,219 @@
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import game.marblesolitaire.controller.InputTokenizer;
+import game.marblesolitaire.controller.MarbleSolitaireControllerImpl;
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.server.GameFactory;
+import game.marblesolitaire.server.InputDecoder;
+import game.marblesolitaire.server.NioSolitaireServer;
+import game.marblesolitaire.view.MarbleSolitaireTextView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * A JUnit test class for the NioSolitaireServer class.
+ */
+public class NioSolitaireServerTest {
+  private static final GameFactory ENGLISH = (in, out) -> {
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    return new MarbleSolitaireControllerImpl(model,
+            new MarbleSolitaireTextView(model, out, 256), in);
+  };
+
+  @Test
+  public void testConcurrentSessions() throws Exception {
+    String[] inputs = {"2 4 4 4 q", "5 4 3 4 7 4 5 4 q", "4 2 4 4\n4 5 4 3\nq\n",
+        "1 1 1 3 q", "4 6 4 4 q", "2 4 4 4 5 4 3 4 hello -3 q"};
+    ExecutorService clients = Executors.newFixedThreadPool(inputs.length + 1);
+    try (NioSolitaireServer server = new NioSolitaireServer(openChannel(), ENGLISH)) {
+      clients.submit(() -> {
+        server.serve();
+        return null;
+      });
+      List<Future<String>> outputs = new ArrayList<>();
+      for (String input : inputs) {
+        outputs.add(clients.submit(() -> play(server.getPort(), input)));
+      }
+      for (int i = 0; i < inputs.length; i++) {
+        assertEquals(playLocally(inputs[i]), outputs.get(i).get());
+      }
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInputInPieces() {
+    // \u0664 is a digit four of two bytes, and \u20ac a character of three
+    String input = "5 4 3 4 7 \u0664 5 4 4 2 4 4 12345 \u20ac\u0664 -\u0663 q\n";
+    byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+    List<String> expected = tokensOf(new InputTokenizer(new StringReader(input)));
+    // pieces of every length, so every character and token is split once
+    for (int piece = 1; piece <= bytes.length; piece++) {
+      InputDecoder decoder = new InputDecoder();
+      InputTokenizer tokens = new InputTokenizer();
+      ByteBuffer buffer = ByteBuffer.allocate(piece + 3);
+      CharBuffer chars = CharBuffer.allocate(buffer.capacity());
+      List<String> found = new ArrayList<>();
+      for (int i = 0; i < bytes.length; i += piece) {
+        decoder.begin(buffer);
+        buffer.put(bytes, i, Math.min(piece, bytes.length - i));
+        decoder.decode(buffer, chars);
+        while (chars.hasRemaining()) {
+          InputTokenizer.Kind kind = tokens.feed(chars.get());
+          if (kind != null) {
+            found.add(describe(kind, tokens));
+          }
+        }
+      }
+      found.add(describe(tokens.finish(), tokens));
+      assertEquals(expected, found);
+    }
+    assertEquals("Number 4", expected.get(5));
+    assertEquals("Number -3", expected.get(14));
+  }
+
+  @Test
+  public void testMalformedInput() {
+    InputDecoder decoder = new InputDecoder();
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    CharBuffer chars = CharBuffer.allocate(8);
+    decoder.begin(buffer);
+    buffer.put(new byte[] {'1', (byte) 0xFF, ' ', (byte) 0xE2});
+    decoder.decode(buffer, chars);
+    assertEquals("1\uFFFD ", chars.toString());
+    // the start of a character that never ends is replaced with what follows
+    decoder.begin(buffer);
+    buffer.put(new byte[] {'2', ' '});
+    decoder.decode(buffer, chars);
+    assertEquals("\uFFFD2 ", chars.toString());
+  }
+
+  @Test
+  public void testOutputBacklog() throws Exception {
+    // far more output than a socket buffer holds, sent before any is read
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 50000; i++) {
+      input.append("1 1 1 1 ");
+    }
+    input.append("q");
+    NioSolitaireServer server = new NioSolitaireServer(openChannel(), ENGLISH);
+    Thread serving;
+    try {
+      serving = serve(server);
+      assertEquals(playLocally(input.toString()),
+              play(server.getPort(), input.toString()));
+    } finally {
+      server.close();
+    }
+    serving.join(5000);
+  }
+
+  @Test
+  public void testSessionWithoutEnd() throws Exception {
+    NioSolitaireServer server = new NioSolitaireServer(openChannel(), ENGLISH);
+    Thread serving;
+    try {
+      serving = serve(server);
+      // the game is left unfinished, the session ends when the input does
+      String output = play(server.getPort(), "2 4 4 4");
+      assertEquals(new MarbleSolitaireTextView(new EnglishSolitaireModel()).toString(),
+              output.substring(0, output.indexOf("\nScore: 32")));
+      assertEquals(playLocally("2 4 4 4"), output);
+    } finally {
+      server.close();
+    }
+    serving.join(5000);
+    assertEquals(0, server.getSessionCount());
+  }
+
+  @Test
+  public void testInvalid() throws Exception {
+    try (ServerSocketChannel channel = openChannel()) {
+      assertThrows(IllegalArgumentException.class, () -> new NioSolitaireServer(channel, null));
+      assertThrows(IllegalArgumentException.class, () -> new NioSolitaireServer(null, ENGLISH));
+    }
+  }
+
+  // opens a channel on a free port of the loopback address.
+  private static ServerSocketChannel openChannel() throws IOException {
+    ServerSocketChannel channel = ServerSocketChannel.open();
+    channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    return channel;
+  }
+
+  // serves the given server on a new thread.
+  private static Thread serve(NioSolitaireServer server) {
+    Thread serving = new Thread(() -> {
+      try {
+        server.serve();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    serving.start();
+    return serving;
+  }
+
+  // plays the given input over a new connection and returns all the output.
+  private static String play(int port, String input) throws IOException {
+    try (Socket client = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      OutputStream toServer = client.getOutputStream();
+      toServer.write(input.getBytes(StandardCharsets.UTF_8));
+      toServer.flush();
+      client.shutdownOutput();
+      InputStream fromServer = client.getInputStream();
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      fromServer.transferTo(output);
+      return output.toString(StandardCharsets.UTF_8);
+    }
+  }
+
+  // returns every token of the tokenizer up to the end of its input.
+  private static List<String> tokensOf(InputTokenizer tokens) {
+    List<String> found = new ArrayList<>();
+    InputTokenizer.Kind kind;
+    do {
+      kind = tokens.next();
+      found.add(describe(kind, tokens));
+    } while (!kind.equals(InputTokenizer.Kind.End));
+    return found;
+  }
+
+  // returns the kind of the last token of the tokenizer, with its value if
+  // it is a number.
+  private static String describe(InputTokenizer.Kind kind, InputTokenizer tokens) {
+    return kind.equals(InputTokenizer.Kind.Number) ? "Number " + tokens.value() : kind.name();
+  }
+
+  // plays the given input on a game of this process and returns the output.
+  private static String playLocally(String input) {
+    StringBuilder out = new StringBuilder();
+    try {
+      ENGLISH.newGame(new StringReader(input), out).playGame();
+    } catch (IllegalStateException e) {
+      // the input ended before the game
+    }
+    return out.toString();
+  }
+}
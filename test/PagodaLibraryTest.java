@@ -0,0 +1,116 @@
+import org.junit.Test;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
+import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.solver.PagodaFunction;
+import game.marblesolitaire.solver.PagodaLibrary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the PagodaLibrary class.
+ */
+public class PagodaLibraryTest {
+
+  @Test
+  public void testFunctionsArePagodas() {
+    MarbleSolitaireModel[] models = {new EnglishSolitaireModel(), new EnglishSolitaireModel(5),
+        new EuropeanSolitaireModel(), new TriangleSolitaireModel(), new TriangleSolitaireModel(7)};
+    for (MarbleSolitaireModel model : models) {
+      BitboardLayout layout = layout(model);
+      for (int target = 0; target < layout.getCellCount(); target++) {
+        PagodaFunction[] functions = PagodaLibrary.forTarget(layout, target);
+        assertTrue(functions.length > 0);
+        for (PagodaFunction function : functions) {
+          int[] weights = new int[layout.getCellCount()];
+          for (int cell = 0; cell < weights.length; cell++) {
+            weights[cell] = function.getWeight(cell);
+          }
+          assertTrue(PagodaFunction.isPagoda(layout, weights));
+          assertTrue(function.getWeight(target) > 0);
+          for (int j = 0; j < layout.getJumpCount(); j++) {
+            assertTrue(function.getJumpChange(j) <= 0);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testParityCount() {
+    // the marbles that can still reach the center are those on the five
+    // slots with an odd row and an odd column
+    BitboardLayout layout = layout(new EnglishSolitaireModel());
+    int center = layout.getCell(3, 3);
+    boolean found = false;
+    for (PagodaFunction function : PagodaLibrary.forTarget(layout, center)) {
+      int total = 0;
+      for (int cell = 0; cell < layout.getCellCount(); cell++) {
+        total += function.getWeight(cell);
+      }
+      found |= total == 5 && function.getWeight(layout.getCell(1, 3)) == 1
+              && function.getWeight(layout.getCell(3, 1)) == 1;
+    }
+    assertTrue(found);
+  }
+
+  @Test
+  public void testPrunedPosition() {
+    // a single marble next to the center cannot end on the center
+    BitboardLayout layout = layout(new EnglishSolitaireModel());
+    int center = layout.getCell(3, 3);
+    long[] position = new long[layout.getWordCount()];
+    position[0] = 1L << layout.getCell(2, 3);
+    boolean pruned = false;
+    for (PagodaFunction function : PagodaLibrary.forTarget(layout, center)) {
+      pruned |= function.valueOf(position) < function.getWeight(center);
+    }
+    assertTrue(pruned);
+  }
+
+  @Test
+  public void testSharedPerBoard() {
+    BitboardLayout one = layout(new EuropeanSolitaireModel());
+    BitboardLayout other = layout(new EuropeanSolitaireModel(3, 0, 2));
+    PagodaFunction[] first = PagodaLibrary.forTarget(one, 5);
+    PagodaFunction[] second = PagodaLibrary.forTarget(other, 5);
+    assertEquals(first.length, second.length);
+    for (int i = 0; i < first.length; i++) {
+      assertSame(first[i], second[i]);
+    }
+  }
+
+  @Test
+  public void testAnywhere() {
+    assertEquals(0, PagodaLibrary.forTarget(layout(new EnglishSolitaireModel()), -1).length);
+  }
+
+  @Test
+  public void testInvalid() {
+    BitboardLayout layout = layout(new EnglishSolitaireModel());
+    assertThrows(IllegalArgumentException.class, () -> PagodaLibrary.forTarget(null, 0));
+    assertThrows(IllegalArgumentException.class, () -> PagodaLibrary.forTarget(layout, 33));
+    assertThrows(IllegalArgumentException.class, () -> PagodaLibrary.forTarget(layout, -2));
+
+    int[] weights = new int[layout.getCellCount()];
+    weights[layout.getCell(3, 3)] = 1;
+    assertFalse(PagodaFunction.isPagoda(layout, weights));
+    assertThrows(IllegalArgumentException.class, () -> new PagodaFunction(layout, weights));
+    assertThrows(IllegalArgumentException.class, () -> new PagodaFunction(layout, new int[3]));
+    weights[layout.getCell(3, 3)] = -1;
+    assertFalse(PagodaFunction.isPagoda(layout, weights));
+  }
+
+  // returns the layout of the board of the given model.
+  private static BitboardLayout layout(MarbleSolitaireModel model) {
+    return new BitboardSolitaireModel(model).getLayout();
+  }
+}
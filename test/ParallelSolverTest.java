@@ -0,0 +1,118 @@
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModelState;
+import game.marblesolitaire.model.single.MoveEncoding;
+import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
+import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.solver.ConcurrentTranspositionTable;
+import game.marblesolitaire.solver.MarbleSolitaireSolver;
+import game.marblesolitaire.solver.ParallelSolver;
+import game.marblesolitaire.solver.TranspositionTable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the ParallelSolver class.
+ */
+public class ParallelSolverTest {
+
+  @Test
+  public void testEnglishCenter() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    MarbleSolitaireSolver solver = new ParallelSolver(model, 3, 3, pool);
+    assertTrue(solver.isSolvable());
+    replay(model, solver.solve());
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, model.getSlotAt(3, 3));
+    pool.shutdown();
+  }
+
+  @Test
+  public void testEuropean() {
+    MarbleSolitaireModel model = new EuropeanSolitaireModel(1, 3);
+    replay(model, new ParallelSolver(model).solve());
+  }
+
+  @Test
+  public void testTriangle() {
+    MarbleSolitaireModel model = new TriangleSolitaireModel(6, 2, 1);
+    replay(model, new ParallelSolver(model).solve());
+  }
+
+  @Test
+  public void testUnsolvable() {
+    MarbleSolitaireSolver solver = new ParallelSolver(new TriangleSolitaireModel(), 2, 1,
+            ForkJoinPool.commonPool());
+    assertFalse(solver.isSolvable());
+    assertThrows(IllegalStateException.class, solver::solve);
+    assertFalse(new ParallelSolver(new EnglishSolitaireModel(1)).isSolvable());
+  }
+
+  @Test
+  public void testPagodaPrunesSplitMoves() {
+    // no pagoda function of (2, 1) lets the marbles left reach it, so none
+    // of the two moves gets a task and only the start is recorded
+    MarbleSolitaireModel model = new TriangleSolitaireModel();
+    model.move(2, 0, 0, 0);
+    model.move(3, 2, 1, 0);
+    model.move(4, 2, 2, 0);
+    ParallelSolver solver = new ParallelSolver(model, 2, 1, ForkJoinPool.commonPool());
+    assertFalse(solver.isSolvable());
+    assertEquals(1, solver.getFailedCount());
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () ->
+            new ParallelSolver(new EnglishSolitaireModel(), 0, 0, ForkJoinPool.commonPool()));
+    assertThrows(IllegalArgumentException.class, () ->
+            new ParallelSolver(new EnglishSolitaireModel(), 3, 3, null));
+    assertThrows(IllegalArgumentException.class, () ->
+            new ConcurrentTranspositionTable(1, 0));
+  }
+
+  @Test
+  public void testConcurrentTable() throws InterruptedException {
+    TranspositionTable table = new ConcurrentTranspositionTable(1, 8);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (long i = 0; i < 10000; i++) {
+          table.add(new long[] {i});
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(10000, table.size());
+    assertTrue(table.contains(new long[] {9999}));
+    assertFalse(table.contains(new long[] {10000}));
+
+    // a single stripe takes every position
+    TranspositionTable single = new ConcurrentTranspositionTable(2, 1);
+    for (long i = 0; i < 5000; i++) {
+      assertTrue(single.add(new long[] {i, -i}));
+    }
+    assertEquals(5000, single.size());
+    assertTrue(single.contains(new long[] {4999, -4999}));
+  }
+
+  // replays the moves of a solution on the model and checks that it ends
+  // with a single marble.
+  private void replay(MarbleSolitaireModel model, int[] moves) {
+    for (int move : moves) {
+      model.move(MoveEncoding.fromRow(move), MoveEncoding.fromCol(move),
+              MoveEncoding.toRow(move), MoveEncoding.toCol(move));
+    }
+    assertEquals(1, model.getScore());
+  }
+}
@@ -0,0 +1,117 @@
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import game.marblesolitaire.controller.MarbleSolitaireControllerImpl;
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.server.GameFactory;
+import game.marblesolitaire.server.SolitaireServer;
+import game.marblesolitaire.view.MarbleSolitaireTextView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * A JUnit test class for the SolitaireServer class.
+ */
+public class SolitaireServerTest {
+  private static final GameFactory ENGLISH = (in, out) -> {
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    return new MarbleSolitaireControllerImpl(model,
+            new MarbleSolitaireTextView(model, out), in);
+  };
+
+  @Test
+  public void testConcurrentSessions() throws Exception {
+    String[] inputs = {"2 4 4 4 q", "5 4 3 4 7 4 5 4 q", "4 2 4 4\n4 5 4 3\nq\n",
+        "1 1 1 3 q", "4 6 4 4 q"};
+    ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    ExecutorService clients = Executors.newFixedThreadPool(inputs.length + 1);
+    try (SolitaireServer server = new SolitaireServer(socket, ENGLISH)) {
+      clients.submit(() -> {
+        server.serve();
+        return null;
+      });
+      List<Future<String>> outputs = new ArrayList<>();
+      for (String input : inputs) {
+        outputs.add(clients.submit(() -> play(socket.getLocalPort(), input)));
+      }
+      for (int i = 0; i < inputs.length; i++) {
+        assertEquals(playLocally(inputs[i]), outputs.get(i).get());
+      }
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSessionWithoutEnd() throws Exception {
+    ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    SolitaireServer server = new SolitaireServer(socket, ENGLISH);
+    Thread accepting = new Thread(() -> {
+      try {
+        server.serve();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    try {
+      accepting.start();
+      // the game is left unfinished, the session ends when the input does
+      String output = play(socket.getLocalPort(), "2 4 4 4");
+      assertEquals(new MarbleSolitaireTextView(new EnglishSolitaireModel()).toString(),
+              output.substring(0, output.indexOf("\nScore: 32")));
+    } finally {
+      server.close();
+    }
+    accepting.join(5000);
+    assertEquals(0, server.getSessionCount());
+  }
+
+  @Test
+  public void testInvalid() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      assertThrows(IllegalArgumentException.class, () -> new SolitaireServer(socket, null));
+      assertThrows(IllegalArgumentException.class, () -> new SolitaireServer(null, ENGLISH));
+    }
+  }
+
+  // plays the given input over a new connection and returns all the output.
+  private static String play(int port, String input) throws IOException {
+    try (Socket client = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      OutputStream toServer = client.getOutputStream();
+      toServer.write(input.getBytes(StandardCharsets.UTF_8));
+      toServer.flush();
+      client.shutdownOutput();
+      InputStream fromServer = client.getInputStream();
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      fromServer.transferTo(output);
+      return output.toString(StandardCharsets.UTF_8);
+    }
+  }
+
+  // plays the given input on a game of this process and returns the output.
+  private static String playLocally(String input) {
+    StringBuilder out = new StringBuilder();
+    try {
+      ENGLISH.newGame(new StringReader(input), out).playGame();
+    } catch (IllegalStateException e) {
+      // the input ended before the game
+    }
+    return out.toString();
+  }
+}
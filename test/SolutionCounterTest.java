@@ -0,0 +1,82 @@
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.solver.SolutionCounter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the SolutionCounter class.
+ */
+public class SolutionCounterTest {
+
+  @Test
+  public void testCountAnywhere() {
+    MarbleSolitaireModel model = new TriangleSolitaireModel();
+    SolutionCounter counter = new SolutionCounter(model);
+    assertEquals(BigInteger.valueOf(29760), counter.countSolutions());
+    assertEquals(BigInteger.valueOf(bruteForce(model, -1)), counter.countSolutions());
+    assertTrue(counter.getPositionCount() > 0);
+    assertEquals(14, model.getScore());
+  }
+
+  @Test
+  public void testCountTarget() {
+    MarbleSolitaireModel model = new TriangleSolitaireModel(5, 2, 1);
+    BitboardLayout layout = new BitboardSolitaireModel(model).getLayout();
+    for (int row = 0; row < 5; row++) {
+      for (int col = 0; col <= row; col++) {
+        assertEquals(BigInteger.valueOf(bruteForce(model, layout.getCell(row, col))),
+                new SolutionCounter(model, row, col).countSolutions());
+      }
+    }
+  }
+
+  @Test
+  public void testNoSolution() {
+    MarbleSolitaireModel two = new TriangleSolitaireModel(2);
+    assertEquals(BigInteger.ZERO, new SolutionCounter(two).countSolutions());
+    // the last marble of the triangle of six cannot end on this slot
+    MarbleSolitaireModel six = new TriangleSolitaireModel(6);
+    assertEquals(BigInteger.ZERO, new SolutionCounter(six, 3, 1).countSolutions());
+  }
+
+  @Test
+  public void testInvalid() {
+    MarbleSolitaireModel model = new EnglishSolitaireModel();
+    assertThrows(IllegalArgumentException.class, () -> new SolutionCounter(null));
+    assertThrows(IllegalArgumentException.class, () -> new SolutionCounter(model, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new SolutionCounter(model, 7, 3));
+  }
+
+  // helper method that counts the sequences of moves to a single marble on
+  // the target, or anywhere for -1, by playing every one of them.
+  private static long bruteForce(MarbleSolitaireModel model, int target) {
+    BitboardSolitaireModel bitboard = new BitboardSolitaireModel(model);
+    return bruteForce(bitboard.getLayout(), bitboard.getPosition()[0], target);
+  }
+
+  // helper method that counts the sequences of moves from the given position.
+  private static long bruteForce(BitboardLayout layout, long position, int target) {
+    if (Long.bitCount(position) == 1) {
+      return target < 0 || position == 1L << target ? 1 : 0;
+    }
+    long count = 0;
+    long[] words = {position};
+    for (int j = 0; j < layout.getJumpCount(); j++) {
+      if (layout.canJump(words, j)) {
+        count += bruteForce(layout, position ^ 1L << layout.getJumpFrom(j)
+                ^ 1L << layout.getJumpOver(j) ^ 1L << layout.getJumpTo(j), target);
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,89 @@
+import org.junit.Test;
+
+import game.marblesolitaire.model.single.EnglishSolitaireModel;
+import game.marblesolitaire.model.single.MarbleSolitaireModel;
+import game.marblesolitaire.model.withMultiple.BitboardLayout;
+import game.marblesolitaire.model.withMultiple.BitboardSolitaireModel;
+import game.marblesolitaire.model.withMultiple.EuropeanSolitaireModel;
+import game.marblesolitaire.model.withMultiple.TriangleSolitaireModel;
+import game.marblesolitaire.solver.SymmetryCanonicalizer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * A JUnit test class for the SymmetryCanonicalizer class.
+ */
+public class SymmetryCanonicalizerTest {
+
+  @Test
+  public void testSymmetryCount() {
+    assertEquals(8, canonicalizer(new EnglishSolitaireModel()).getSymmetryCount());
+    assertEquals(8, canonicalizer(new EnglishSolitaireModel(5)).getSymmetryCount());
+    assertEquals(8, canonicalizer(new EuropeanSolitaireModel()).getSymmetryCount());
+    assertEquals(6, canonicalizer(new TriangleSolitaireModel()).getSymmetryCount());
+    assertEquals(6, canonicalizer(new TriangleSolitaireModel(7)).getSymmetryCount());
+  }
+
+  @Test
+  public void testFixedCell() {
+    BitboardLayout english = new BitboardSolitaireModel(new EnglishSolitaireModel()).getLayout();
+    assertEquals(8, new SymmetryCanonicalizer(english, english.getCell(3, 3)).getSymmetryCount());
+    assertEquals(2, new SymmetryCanonicalizer(english, english.getCell(0, 3)).getSymmetryCount());
+    assertEquals(1, new SymmetryCanonicalizer(english, english.getCell(0, 2)).getSymmetryCount());
+
+    BitboardLayout triangle = new BitboardSolitaireModel(new TriangleSolitaireModel()).getLayout();
+    assertEquals(2, new SymmetryCanonicalizer(triangle, triangle.getCell(0, 0)).getSymmetryCount());
+    assertEquals(2, new SymmetryCanonicalizer(triangle, triangle.getCell(3, 1)).getSymmetryCount());
+    BitboardLayout seven = new BitboardSolitaireModel(new TriangleSolitaireModel(7)).getLayout();
+    assertEquals(6, new SymmetryCanonicalizer(seven, seven.getCell(4, 2)).getSymmetryCount());
+  }
+
+  @Test
+  public void testSymmetricStartsShareRepresentative() {
+    // the four holes next to the center of the English board are rotations of each other
+    long[] first = canonical(new EnglishSolitaireModel(2, 3));
+    assertArrayEquals(first, canonical(new EnglishSolitaireModel(4, 3)));
+    assertArrayEquals(first, canonical(new EnglishSolitaireModel(3, 2)));
+    assertArrayEquals(first, canonical(new EnglishSolitaireModel(3, 4)));
+    assertFalse(first[0] == canonical(new EnglishSolitaireModel(3, 3))[0]);
+
+    // the three corners of a triangle
+    long[] corner = canonical(new TriangleSolitaireModel(5, 0, 0));
+    assertArrayEquals(corner, canonical(new TriangleSolitaireModel(5, 4, 0)));
+    assertArrayEquals(corner, canonical(new TriangleSolitaireModel(5, 4, 4)));
+
+    // boards of more than one word
+    long[] large = canonical(new EnglishSolitaireModel(5, 0, 4));
+    assertArrayEquals(large, canonical(new EnglishSolitaireModel(5, 12, 8)));
+    assertArrayEquals(large, canonical(new EnglishSolitaireModel(5, 8, 0)));
+  }
+
+  @Test
+  public void testCanonicalizeInPlace() {
+    MarbleSolitaireModel model = new EuropeanSolitaireModel(1, 1);
+    BitboardSolitaireModel bits = new BitboardSolitaireModel(model);
+    SymmetryCanonicalizer canonicalizer = new SymmetryCanonicalizer(bits.getLayout());
+    long[] position = bits.getPosition();
+    canonicalizer.canonicalize(position, position);
+    assertArrayEquals(canonicalizer.canonicalize(model), position);
+  }
+
+  @Test
+  public void testDifferentBoard() {
+    assertThrows(IllegalArgumentException.class, () ->
+            canonicalizer(new EnglishSolitaireModel()).canonicalize(new EuropeanSolitaireModel()));
+  }
+
+  // returns a canonicalizer for the board of the given model.
+  private SymmetryCanonicalizer canonicalizer(MarbleSolitaireModel model) {
+    return new SymmetryCanonicalizer(new BitboardSolitaireModel(model).getLayout());
+  }
+
+  // returns the representative of the start position of the given model.
+  private long[] canonical(MarbleSolitaireModel model) {
+    return canonicalizer(model).canonicalize(model);
+  }
+}
@@ -111,6 +111,43 @@ public class TriangleSolitaireTest {
     assertEquals(expectedMsg, exception.getMessage());
   }
 
+  @Test
+  public void testRenderReusesBuffer() throws Exception {
+    StringBuilder out = new StringBuilder();
+    MarbleSolitaireView view = new TriangleSolitaireTextView(one, out);
+    view.renderBoard();
+    one.move(2, 0, 0, 0);
+    view.renderBoard();
+    assertEquals("    _\n" +
+            "   O O\n" +
+            "  O O O\n" +
+            " O O O O\n" +
+            "O O O O O" +
+            "    O\n" +
+            "   _ O\n" +
+            "  _ O O\n" +
+            " O O O O\n" +
+            "O O O O O", out.toString());
+    assertEquals(view1.toString(), view.toString());
+
+    // every row is padded to the same width as the last row
+    MarbleSolitaireView large = new TriangleSolitaireTextView(new TriangleSolitaireModel(200));
+    String text = large.toString();
+    assertEquals(199 * 200 / 2 + 200 * 200 + 199, text.length());
+    assertEquals(199, text.indexOf('_'));
+    assertEquals(text.length() - 400, text.lastIndexOf('\n'));
+  }
+
+  @Test
+  public void testStreamedRender() throws Exception {
+    MarbleSolitaireModel large = new TriangleSolitaireModel(200);
+    large.move(2, 0, 0, 0);
+    StringBuilder out = new StringBuilder();
+    MarbleSolitaireView view = new TriangleSolitaireTextView(large, out);
+    view.renderBoard();
+    assertEquals(new TriangleSolitaireTextView(large).toString(), out.toString());
+  }
+
   @Test
   public void testView() {
     MarbleSolitaireModelState armOne = new TriangleSolitaireModel(1, 0,0);
@@ -285,6 +322,19 @@ public class TriangleSolitaireTest {
     armSix.move(1,1,6,0);
   }
 
+  @Test
+  public void testTryMove() {
+    assertFalse(one.isLegalMove(0, 0, 2, 2));
+    assertFalse(one.tryMove(2, 0, 0, 2));
+    assertFalse(one.tryMove(2, 2, 0, 4));
+    assertFalse(one.tryMove(4, 4, 6, 6));
+    assertTrue(one.isLegalMove(2, 2, 0, 0));
+    assertTrue(one.tryMove(2, 2, 0, 0));
+    assertEquals(13, one.getScore());
+    assertEquals(MarbleSolitaireModelState.SlotState.Marble, one.getSlotAt(0, 0));
+    assertFalse(one.tryMove(2, 2, 0, 0));
+  }
+
   @Test
   public void testMoveOver() {
 